@@ -0,0 +1,108 @@
+package com.jewel.reportmanager.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jewel.reportmanager.dto.Cell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suite run report rows built from per-cell HashMaps, as createCustomObject used to do, against {@link Cell}s
+ * with shared subtype descriptors. Run with -prof gc to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CellBenchmark {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Map<String, Object>> mapRows;
+    private List<Map<String, Object>> cellRows;
+
+    @Setup
+    public void setUp() {
+        mapRows = buildMapRows();
+        cellRows = buildCellRows();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> buildMapRows() {
+        List<Map<String, Object>> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> temp = new HashMap<>();
+            Map<String, Object> actionReport = new HashMap<>();
+            actionReport.put("subType", "execution_report");
+            temp.put("Action", mapCell("s-" + i, "action", "s-" + i, "center", actionReport));
+            temp.put("Report Name", mapCell("regression", "text", "regression", "left", null));
+            temp.put("Project Name", mapCell("Sample project", "text", "sample project", "left", null));
+            temp.put("Environment", mapCell("Beta", "text", "beta", "left", null));
+            temp.put("Status", mapCell("PASS", "status", "PASS", "center", null));
+            Map<String, Object> subtype = new HashMap<>();
+            subtype.put("subType", "duration");
+            Map<String, Object> values = new HashMap<>();
+            values.put("start_time", 1_690_000_000_000L + i);
+            values.put("end_time", 1_690_000_050_000L + i);
+            temp.put("Duration", mapCell(values, "date", 50_000f, "center", subtype));
+            data.add(temp);
+        }
+        return data;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> buildCellRows() {
+        List<Map<String, Object>> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> temp = new HashMap<>();
+            temp.put("Action", new Cell("s-" + i, "action", "s-" + i, "center", Cell.SUBTYPE_EXECUTION_REPORT));
+            temp.put("Report Name", new Cell("regression", "text", "regression", "left"));
+            temp.put("Project Name", new Cell("Sample project", "text", "sample project", "left"));
+            temp.put("Environment", new Cell("Beta", "text", "beta", "left"));
+            temp.put("Status", new Cell("PASS", "status", "PASS", "center"));
+            Map<String, Object> values = new HashMap<>();
+            values.put("start_time", 1_690_000_000_000L + i);
+            values.put("end_time", 1_690_000_050_000L + i);
+            temp.put("Duration", new Cell(values, "date", 50_000f, "center", Cell.SUBTYPE_DURATION));
+            data.add(temp);
+        }
+        return data;
+    }
+
+    @Benchmark
+    public byte[] serializeMapRows() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(mapRows);
+    }
+
+    @Benchmark
+    public byte[] serializeCellRows() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cellRows);
+    }
+
+    private static Map<String, Object> mapCell(Object value, String type, Object sortValue, String align,
+                                               Map<String, Object> extras) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("value", value);
+        result.put("type", type);
+        result.put("sortValue", sortValue);
+        result.put("align", align);
+        if (extras != null) {
+            result.putAll(extras);
+        }
+        return result;
+    }
+
+}
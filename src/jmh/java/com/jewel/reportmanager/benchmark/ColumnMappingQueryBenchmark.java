@@ -0,0 +1,159 @@
+package com.jewel.reportmanager.benchmark;
+
+import com.jewel.reportmanager.configuration.ColumnMappingIndexVerifier;
+import com.jewel.reportmanager.entity.ColumnMapping;
+import com.jewel.reportmanager.enums.ColumnLevel;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Collation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * The exact-name column_mapping lookups as the IgnoreCase derived queries ran them, an anchored case-insensitive
+ * regex, against the collation queries that replaced them, with and without the indexes from
+ * {@link ColumnMappingIndexVerifier}. Needs a local mongod as stand-in for the real cluster (-Dmongo.uri, default
+ * mongodb://localhost:27017); the collection lives in a scratch database that is dropped afterwards. The winning
+ * plan of every lookup is printed during setup, so the run shows the COLLSCAN to IXSCAN change next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColumnMappingQueryBenchmark {
+
+    private static final String DATABASE = "report_manager_benchmark";
+    private static final String COLLECTION = "column_mapping";
+    private static final Collation CASE_INSENSITIVE = Collation.parse(ColumnMapping.CASE_INSENSITIVE_COLLATION);
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    @Param({"10000"})
+    private int mappings;
+
+    private MongoClient client;
+    private MongoCollection<Document> collection;
+    private Document byPidAndNameRegex;
+    private Document byPidAndName;
+    private Document byFrameworkNameRegex;
+    private Document byFrameworkName;
+
+    @Setup
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("mongo.uri", "mongodb://localhost:27017"));
+        MongoTemplate template = new MongoTemplate(client, DATABASE);
+        template.dropCollection(COLLECTION);
+        collection = template.getCollection(COLLECTION);
+
+        List<Document> documents = new ArrayList<>(mappings);
+        for (int i = 0; i < mappings; i++) {
+            ColumnLevel level = ColumnLevel.values()[i % ColumnLevel.values().length];
+            documents.add(new Document("_id", (long) i)
+                    .append("pid", (long) (i % 500))
+                    .append("level", level.name())
+                    .append("name", level == ColumnLevel.FRAMEWORK ? "Framework-" + i : "Report-" + i)
+                    .append("columns", List.of("NAME", "STATUS", "DURATION"))
+                    .append("isDeleted", i % 10 == 0));
+        }
+        collection.insertMany(documents);
+        if (indexed) {
+            IndexOperations indexOps = template.indexOps(COLLECTION);
+            for (IndexDefinition definition : ColumnMappingIndexVerifier.getIndexDefinitions()) {
+                indexOps.ensureIndex(definition);
+            }
+        }
+
+        int match = mappings / 2 + 1;
+        String reportName = "REPORT-" + match;
+        String frameworkName = "FRAMEWORK-" + (match + 2);
+        byPidAndNameRegex = new Document("level", ColumnLevel.PROJECT_REPORT.name())
+                .append("pid", (long) (match % 500)).append("name", ignoreCase(reportName)).append("isDeleted", false);
+        byPidAndName = new Document("level", ColumnLevel.PROJECT_REPORT.name()).append("pid", (long) (match % 500))
+                .append("name", reportName).append("isDeleted", false);
+        byFrameworkNameRegex = new Document("level", ColumnLevel.FRAMEWORK.name())
+                .append("name", ignoreCase(frameworkName)).append("isDeleted", false);
+        byFrameworkName = new Document("level", ColumnLevel.FRAMEWORK.name()).append("name", frameworkName)
+                .append("isDeleted", false);
+
+        printPlan(template, "byPidAndNameRegex", byPidAndNameRegex, false);
+        printPlan(template, "byPidAndName", byPidAndName, true);
+        printPlan(template, "byFrameworkNameRegex", byFrameworkNameRegex, false);
+        printPlan(template, "byFrameworkName", byFrameworkName, true);
+    }
+
+    /**
+     * The filter Spring Data derives for an IgnoreCase property: an anchored, quoted, case-insensitive regex.
+     */
+    private static Document ignoreCase(String value) {
+        return new Document("$regex", "^" + Pattern.quote(value) + "$").append("$options", "i");
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.getDatabase(DATABASE).drop();
+        client.close();
+    }
+
+    @Benchmark
+    public Document findByPidAndNameRegex() {
+        return collection.find(byPidAndNameRegex).first();
+    }
+
+    @Benchmark
+    public Document findByPidAndName() {
+        return collection.find(byPidAndName).collation(CASE_INSENSITIVE.toMongoCollation()).first();
+    }
+
+    @Benchmark
+    public Document findByFrameworkNameRegex() {
+        return collection.find(byFrameworkNameRegex).first();
+    }
+
+    @Benchmark
+    public Document findByFrameworkName() {
+        return collection.find(byFrameworkName).collation(CASE_INSENSITIVE.toMongoCollation()).first();
+    }
+
+    private void printPlan(MongoTemplate template, String lookup, Document filter, boolean caseInsensitive) {
+        Document find = new Document("find", COLLECTION).append("filter", filter).append("limit", 1);
+        if (caseInsensitive) {
+            find.append("collation", CASE_INSENSITIVE.toDocument());
+        }
+        Document explain = template.getDb().runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        if (winningPlan.containsKey("queryPlan")) {
+            winningPlan = winningPlan.get("queryPlan", Document.class);
+        }
+        System.out.println("indexed=" + indexed + " " + lookup + ": " + formatPlan(winningPlan));
+    }
+
+    private static String formatPlan(Document stage) {
+        StringBuilder plan = new StringBuilder(stage.getString("stage"));
+        if (stage.containsKey("indexName")) {
+            plan.append('(').append(stage.getString("indexName")).append(')');
+        }
+        Document inputStage = stage.get("inputStage", Document.class);
+        if (inputStage != null) {
+            plan.append(" <- ").append(formatPlan(inputStage));
+        }
+        return plan.toString();
+    }
+
+}
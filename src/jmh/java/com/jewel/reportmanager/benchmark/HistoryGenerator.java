@@ -0,0 +1,127 @@
+package com.jewel.reportmanager.benchmark;
+
+import com.jewel.reportmanager.dto.SuiteExeDto;
+import com.jewel.reportmanager.dto.TestExeCommonDto;
+import com.jewel.reportmanager.dto.TestExeDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded synthetic suite and test case histories for the metric benchmarks. Statuses follow a simple Markov
+ * chain, so histories have failure streaks and transitions like real ones instead of uniform noise.
+ */
+final class HistoryGenerator {
+
+    private static final String[] STATUSES = {"PASS", "FAIL", "ERR", "WARN", "INFO"};
+    private static final double[] WEIGHTS = {0.70, 0.15, 0.05, 0.06, 0.04};
+    private static final double STAY_PROBABILITY = 0.8;
+    private static final long RUN_INTERVAL_MS = 15 * 60 * 1000L;
+    private static final long START_TIME = 1_600_000_000_000L;
+
+    private HistoryGenerator() {
+    }
+
+    /**
+     * Returns runs of one suite, oldest first, as the upstream returns them.
+     *
+     * @param runs
+     * @param seed
+     * @return List<SuiteExeDto>
+     */
+    static List<SuiteExeDto> suiteHistory(int runs, long seed) {
+        Random random = new Random(seed);
+        List<SuiteExeDto> suites = new ArrayList<>(runs);
+        String status = "PASS";
+        for (int i = 0; i < runs; i++) {
+            status = nextStatus(random, status);
+            SuiteExeDto suite = new SuiteExeDto();
+            suite.setS_run_id("s-" + i);
+            suite.setP_id(1L);
+            suite.setProject_name("benchmark");
+            suite.setReport_name("regression");
+            suite.setEnv("beta");
+            suite.setStatus(status);
+            suite.setS_start_time(START_TIME + i * RUN_INTERVAL_MS);
+            suite.setS_end_time(START_TIME + i * RUN_INTERVAL_MS + RUN_INTERVAL_MS / 2);
+            suite.setExpected_testcases(0L);
+            suites.add(suite);
+        }
+        return suites;
+    }
+
+    /**
+     * Returns runs of one test case, oldest first.
+     *
+     * @param runs
+     * @param seed
+     * @return List<TestExeCommonDto>
+     */
+    static List<TestExeCommonDto> testCaseHistory(int runs, long seed) {
+        Random random = new Random(seed);
+        List<TestExeCommonDto> testExes = new ArrayList<>(runs);
+        String status = "PASS";
+        for (int i = 0; i < runs; i++) {
+            status = nextStatus(random, status);
+            TestExeCommonDto testExe = new TestExeCommonDto();
+            testExe.setTc_run_id("tc-" + i);
+            testExe.setS_run_id("s-" + i);
+            testExe.setName("login");
+            testExe.setStatus(status);
+            testExe.setStart_time(START_TIME + i * RUN_INTERVAL_MS);
+            testExe.setEnd_time(START_TIME + i * RUN_INTERVAL_MS + 1000);
+            testExes.add(testExe);
+        }
+        return testExes;
+    }
+
+    /**
+     * Returns testsPerRun test exes for every suite run, grouped by s_run_id, drawn from a pool of test case
+     * names so culprit has repeated names to count.
+     *
+     * @param suites
+     * @param testsPerRun
+     * @param testCaseNames
+     * @param seed
+     * @return Map<String, List<TestExeDto>>
+     */
+    static Map<String, List<TestExeDto>> testExesByS_run_id(List<SuiteExeDto> suites, int testsPerRun,
+                                                            int testCaseNames, long seed) {
+        Random random = new Random(seed);
+        String[] names = new String[testCaseNames];
+        for (int i = 0; i < testCaseNames; i++) {
+            names[i] = "testcase-" + i;
+        }
+        Map<String, List<TestExeDto>> testExesByS_run_id = new HashMap<>(suites.size() * 2);
+        for (SuiteExeDto suite : suites) {
+            List<TestExeDto> testExes = new ArrayList<>(testsPerRun);
+            for (int i = 0; i < testsPerRun; i++) {
+                TestExeDto testExe = new TestExeDto();
+                testExe.setS_run_id(suite.getS_run_id());
+                testExe.setName(names[random.nextInt(testCaseNames)]);
+                testExe.setStatus(nextStatus(random, suite.getStatus()));
+                testExes.add(testExe);
+            }
+            testExesByS_run_id.put(suite.getS_run_id(), testExes);
+        }
+        return testExesByS_run_id;
+    }
+
+    private static String nextStatus(Random random, String current) {
+        if (random.nextDouble() < STAY_PROBABILITY) {
+            return current;
+        }
+        double roll = random.nextDouble();
+        for (int i = 0; i < STATUSES.length; i++) {
+            roll -= WEIGHTS[i];
+            if (roll < 0) {
+                return STATUSES[i];
+            }
+        }
+        return STATUSES[0];
+    }
+
+}
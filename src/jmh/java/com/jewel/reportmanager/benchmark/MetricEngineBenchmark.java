@@ -0,0 +1,101 @@
+package com.jewel.reportmanager.benchmark;
+
+import com.jewel.reportmanager.dto.SuiteExeDto;
+import com.jewel.reportmanager.dto.TestExeCommonDto;
+import com.jewel.reportmanager.dto.TestExeDto;
+import com.jewel.reportmanager.utils.ReportUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stability metrics of the suite summary and diagnose reports over synthetic histories of 10^2 to 10^6
+ * runs. Pick sizes with -p runs=..., add -prof gc for allocation per operation. None of the measured functions
+ * call an upstream; getScore is measured through its counts overload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MetricEngineBenchmark {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int runs;
+
+    @Param({"2"})
+    private int testsPerRun;
+
+    private List<SuiteExeDto> suites;
+    private List<SuiteExeDto> sortedSuites;
+    private List<TestExeCommonDto> testExes;
+    private Map<String, List<TestExeDto>> testExesByS_run_id;
+
+    @Setup
+    public void setUp() {
+        suites = HistoryGenerator.suiteHistory(runs, 42L);
+        sortedSuites = ReportUtils.getSortedListForSuiteExe(suites);
+        testExes = HistoryGenerator.testCaseHistory(runs, 43L);
+        testExesByS_run_id = HistoryGenerator.testExesByS_run_id(suites, testsPerRun, 200, 44L);
+    }
+
+    @Benchmark
+    public double brokenIndexForSuiteExe() {
+        return ReportUtils.brokenIndexForSuiteExe(suites);
+    }
+
+    @Benchmark
+    public double brokenIndexForTestExe() {
+        return ReportUtils.brokenIndexForTestExe(testExes);
+    }
+
+    @Benchmark
+    public long averageFixTimeForSuiteExe() {
+        return ReportUtils.averageFixTimeForSuiteExe(suites);
+    }
+
+    @Benchmark
+    public String averageFixTimeForTestExeCommon() {
+        return ReportUtils.averageFixTimeForTestExeCommon(testExes);
+    }
+
+    @Benchmark
+    public long getDownTimeForSuiteExe() {
+        return ReportUtils.getDownTimeForSuiteExe(sortedSuites);
+    }
+
+    @Benchmark
+    public List<SuiteExeDto> getSortedListForSuiteExe() {
+        return ReportUtils.getSortedListForSuiteExe(suites);
+    }
+
+    @Benchmark
+    public double getScore() {
+        double brokenIndex = ReportUtils.brokenIndexForSuiteExe(suites);
+        long averageFixTime = ReportUtils.averageFixTimeForSuiteExe(suites);
+        long downTime = ReportUtils.getDownTimeForSuiteExe(sortedSuites);
+        long failedSuiteCount = 0;
+        for (SuiteExeDto suite : suites) {
+            if (suite.getStatus().equals("FAIL") || suite.getStatus().equals("ERR")) {
+                failedSuiteCount++;
+            }
+        }
+        return ReportUtils.getScore(brokenIndex, downTime, averageFixTime, "beta", suites.size(),
+                failedSuiteCount, (double) runs * testsPerRun, failedSuiteCount * (double) testsPerRun);
+    }
+
+    @Benchmark
+    public Map<String, Long> culprit() {
+        return ReportUtils.culprit(suites, testExesByS_run_id);
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.jewel.reportmanager.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.jewel.reportmanager.dto.TestExeDataDto;
+import com.jewel.reportmanager.utils.RestApiUtils;
+import com.mongodb.BasicDBObject;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of the /v1/testExe/data envelope: the former Gson round trip against the single-pass streaming
+ * decoder in {@link RestApiUtils#readResponseData}. Run with -prof gc to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseDecodingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int rows;
+
+    private byte[] body;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JavaType testExeDataType = objectMapper.getTypeFactory().constructType(TestExeDataDto.class);
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Map<String, Object>> results = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> suiteExe = new LinkedHashMap<>();
+            suiteExe.put("p_id", 42);
+            suiteExe.put("project_name", "sample project");
+            suiteExe.put("report_name", "regression");
+            suiteExe.put("env", "beta");
+            Map<String, Object> testExe = new LinkedHashMap<>();
+            testExe.put("tc_run_id", "tc-" + i);
+            testExe.put("s_run_id", "s-" + (i / 50));
+            testExe.put("name", "testcase " + (i % 500));
+            testExe.put("status", i % 7 == 0 ? "FAIL" : "PASS");
+            testExe.put("product_type", "GEMJAR");
+            testExe.put("start_time", 1_690_000_000_000L + i);
+            testExe.put("end_time", 1_690_000_050_000L + i);
+            testExe.put("ignore", false);
+            testExe.put("result", List.of(suiteExe));
+            results.add(testExe);
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("count", rows);
+        data.put("results", results);
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("data", data);
+        envelope.put("message", rows + " Records found");
+        envelope.put("operation", "Success");
+        body = objectMapper.writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public Map<String, Object> gsonRoundTrip() throws IOException {
+        Object responseBody = objectMapper.readValue(body, Object.class);
+        Gson gson = new Gson();
+        String json = gson.toJson(responseBody);
+        Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
+        }.getType());
+        Object data = convertedMap.get("data");
+        Type type = new TypeToken<Map<String, Object>>() {
+        }.getType();
+        convertedMap = gson.fromJson(gson.toJson(data), type);
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("count", (long) Math.floor((Double) convertedMap.get("count")));
+        type = new TypeToken<List<BasicDBObject>>() {
+        }.getType();
+        List<BasicDBObject> basicDBObjectList = gson.fromJson(gson.toJson(convertedMap.get("results")), type);
+        for (BasicDBObject basicDBObject : basicDBObjectList) {
+            type = new TypeToken<List<Document>>() {
+            }.getType();
+            basicDBObject.put("result", gson.fromJson(gson.toJson(basicDBObject.get("result")), type));
+            basicDBObject.put("end_time", (long) Math.floor((Double) basicDBObject.get("end_time")));
+            basicDBObject.put("start_time", (long) Math.floor((Double) basicDBObject.get("start_time")));
+        }
+        resultMap.put("results", basicDBObjectList);
+        return resultMap;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> streamingDecode() throws IOException {
+        TestExeDataDto testExeData = RestApiUtils.readResponseData(new ByteArrayInputStream(body), testExeDataType);
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("count", testExeData.getCount());
+        for (BasicDBObject basicDBObject : testExeData.getResults()) {
+            List<Document> result = new ArrayList<>();
+            for (Object suiteExe : (List<?>) basicDBObject.get("result")) {
+                result.add(new Document((Map<String, Object>) suiteExe));
+            }
+            basicDBObject.put("result", result);
+            basicDBObject.put("end_time", ((Number) basicDBObject.get("end_time")).longValue());
+            basicDBObject.put("start_time", ((Number) basicDBObject.get("start_time")).longValue());
+        }
+        resultMap.put("results", testExeData.getResults());
+        return resultMap;
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.jewel.reportmanager.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jewel.reportmanager.dto.ClassificationDetails;
+import com.jewel.reportmanager.dto.TestExeDto;
+import com.jewel.reportmanager.utils.TestExeProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testcase detail rows built the way populateResultWithTestExes used to, with a new ObjectMapper and
+ * convertValue per test exe followed by removing the hidden keys, against {@link TestExeProjection}. Run with
+ * -prof gc to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TestExeProjectionBenchmark {
+
+    private static final List<String> HIDDEN_KEYS = List.of("user_defined_data", "steps", "meta_data", "ignore",
+            "log_file", "result_file", "s_run_id", "tc_run_id", "job_name", "classificationDetails", "varianceId",
+            "stepVarianceIds", "testcase_id");
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private List<TestExeDto> testExes;
+
+    @Setup
+    public void setUp() {
+        testExes = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            TestExeDto testExe = new TestExeDto();
+            testExe.setTc_run_id("tc-" + i);
+            testExe.setS_run_id("s-1");
+            testExe.setName("testcase " + i);
+            testExe.setStatus(i % 7 == 0 ? "FAIL" : "PASS");
+            testExe.setStart_time(1_690_000_000_000L + i);
+            testExe.setEnd_time(1_690_000_050_000L + i);
+            testExe.setMachine("runner-" + (i % 4));
+            testExe.setProduct_type("GEMJAR");
+            testExe.setCategory("smoke");
+            testExe.setRun_type("ON DEMAND");
+            testExe.setRun_mode("LINUX");
+            testExe.setBase_user("test.user");
+            testExe.setInvoke_user("test.user");
+            testExe.setToken_user(Set.of("test.user"));
+            testExe.setSteps(List.of(Map.of("step name", "open", "status", "PASS")));
+            testExe.setMeta_data(List.of(Map.of("browser", "chrome")));
+            Map<String, Object> userDefinedData = new LinkedHashMap<>();
+            userDefinedData.put("module", "module-" + (i % 20));
+            userDefinedData.put("priority", i % 3);
+            testExe.setUser_defined_data(userDefinedData);
+            if (i % 10 == 0) {
+                testExe.setClassificationDetails(new ClassificationDetails());
+            }
+            testExes.add(testExe);
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> convertValuePerRow() {
+        Set<String> headers = new LinkedHashSet<>();
+        List<Map<String, Object>> data = new ArrayList<>(rows);
+        for (TestExeDto testExe : testExes) {
+            ObjectMapper oMapper = new ObjectMapper();
+            LinkedHashMap<String, Object> map = oMapper.convertValue(testExe, LinkedHashMap.class);
+            if (testExe.getUser_defined_data() != null) {
+                map.putAll(testExe.getUser_defined_data());
+            }
+            for (String key : HIDDEN_KEYS) {
+                map.remove(key);
+            }
+            headers.remove("classificationDetails");
+            headers.remove("stepVarianceIds");
+            headers.addAll(map.keySet());
+            data.add(map);
+        }
+        return data;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> projection() {
+        Set<String> headers = new LinkedHashSet<>();
+        List<Map<String, Object>> data = new ArrayList<>(rows);
+        for (TestExeDto testExe : testExes) {
+            LinkedHashMap<String, Object> map = TestExeProjection.LIVE_REPORT.project(testExe);
+            headers.addAll(map.keySet());
+            data.add(map);
+        }
+        return data;
+    }
+
+}
@@ -4,30 +4,36 @@ import com.jewel.reportmanager.configuration.filters.JwtAuthenticationFilter;
 import com.jewel.reportmanager.service.JwtHelperService;
 import org.apache.catalina.connector.Connector;
 import org.modelmapper.ModelMapper;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
 import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @EnableWebSecurity
 @EnableAsync
+@EnableScheduling
 public class AppConfig {
 
     @Autowired
@@ -76,6 +82,10 @@ public class AppConfig {
         return factory;
     }
 
+    /**
+     * Pool for background work such as report exports, kept apart from the Tomcat threads. Tasks run with the
+     * submitter's security context and MDC.
+     */
     @Bean
     public Executor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -83,20 +93,100 @@ public class AppConfig {
         executor.setMaxPoolSize(6);
         executor.setQueueCapacity(20);
         executor.setThreadNamePrefix("excelThread-");
+        executor.setTaskDecorator(AppConfig::propagateContext);
         executor.initialize();
         return executor;
     }
 
-    //password decode
+    /**
+     * Bounded pool used to fan out independent upstream calls while building a report. The caller's
+     * security context and MDC are carried over so bearer headers can still be built inside the tasks, and a
+     * saturated pool runs the task on the calling thread instead of rejecting it.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public Executor reportFanOutExecutor(@Value("${report.fanout.core-pool-size:8}") int corePoolSize,
+                                         @Value("${report.fanout.max-pool-size:32}") int maxPoolSize,
+                                         @Value("${report.fanout.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("reportFanOut-");
+        executor.setTaskDecorator(AppConfig::propagateContext);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
     }
+
+    /**
+     * Pool the upstream calls of report exports fan out on, so a large export does not take the threads
+     * interactive reports fan out on. Same context propagation and saturation behaviour as the report fan-out.
+     */
+    @Bean
+    public Executor exportFanOutExecutor(@Value("${report.export.fanout.core-pool-size:2}") int corePoolSize,
+                                         @Value("${report.export.fanout.max-pool-size:8}") int maxPoolSize,
+                                         @Value("${report.export.fanout.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("exportFanOut-");
+        executor.setTaskDecorator(AppConfig::propagateContext);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool polling the suites watched for live progress, so a slow upstream only holds up its own suite and not
+     * the scheduler or the report fan-out. Each poll sets the watch's own security context.
+     */
     @Bean
-    public RestTemplate getRestTemplate(){
-        return new RestTemplate();
+    public Executor liveProgressExecutor(@Value("${report.live-progress.pool-size:4}") int poolSize,
+                                         @Value("${report.live-progress.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("liveProgress-");
+        executor.initialize();
+        return executor;
     }
 
+    /**
+     * Carries the caller's security context and MDC over to the thread running the task, so bearer headers and
+     * the report metric tags keep working inside it.
+     *
+     * @param runnable
+     * @return Runnable
+     */
+    static Runnable propagateContext(Runnable runnable) {
+        Runnable secured = new DelegatingSecurityContextRunnable(runnable);
+        Map<String, String> callerMdc = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            setMdc(callerMdc);
+            try {
+                secured.run();
+            } finally {
+                setMdc(previousMdc);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> contextMap) {
+        if (contextMap != null) {
+            MDC.setContextMap(contextMap);
+        } else {
+            MDC.clear();
+        }
+    }
+
+    //password decode
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
     @Bean
     public ModelMapper modelMapper() {
         return new ModelMapper();
@@ -0,0 +1,107 @@
+package com.jewel.reportmanager.configuration;
+
+import com.jewel.reportmanager.entity.ColumnMapping;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Makes sure the column_mapping indexes exist once the application is up. The case-insensitive lookups need
+ * collation indexes, which @CompoundIndex cannot declare in this Spring Data version, so they are defined here.
+ * Missing indexes are created; an existing index with the same name but different keys or collation is only
+ * reported, since dropping it is not something to do on startup.
+ */
+@Slf4j
+@Component
+public class ColumnMappingIndexVerifier {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Returns the indexes the column_mapping queries rely on.
+     *
+     * @return List<IndexDefinition>
+     */
+    public static List<IndexDefinition> getIndexDefinitions() {
+        List<IndexDefinition> definitions = new ArrayList<>();
+        Collation caseInsensitive = Collation.parse(ColumnMapping.CASE_INSENSITIVE_COLLATION);
+        definitions.add(new Index()
+                .on("level", Sort.Direction.ASC)
+                .on("pid", Sort.Direction.ASC)
+                .on("name", Sort.Direction.ASC)
+                .on("isDeleted", Sort.Direction.ASC)
+                .named("level_pid_name_isDeleted_ci")
+                .collation(caseInsensitive));
+        definitions.add(new Index()
+                .on("level", Sort.Direction.ASC)
+                .on("name", Sort.Direction.ASC)
+                .on("isDeleted", Sort.Direction.ASC)
+                .named("level_name_isDeleted_ci")
+                .collation(caseInsensitive));
+        return definitions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(ColumnMapping.class);
+            Map<String, IndexInfo> existing = indexOps.getIndexInfo().stream()
+                    .collect(Collectors.toMap(IndexInfo::getName, Function.identity()));
+            List<IndexDefinition> definitions = getIndexDefinitions();
+            for (IndexDefinition definition : definitions) {
+                String name = definition.getIndexOptions().getString("name");
+                IndexInfo indexInfo = existing.get(name);
+                if (indexInfo == null) {
+                    indexOps.ensureIndex(definition);
+                    log.info("Created index {} on column_mapping", name);
+                } else if (!matches(definition, indexInfo)) {
+                    log.error("Index {} on column_mapping does not match its definition. Expected keys: {}, collation: {}. Found keys: {}, collation: {}",
+                            name, definition.getIndexKeys().keySet(), definition.getIndexOptions().get("collation"),
+                            getKeys(indexInfo), indexInfo.getCollation().orElse(null));
+                }
+            }
+            log.info("Verified {} indexes on column_mapping", definitions.size());
+        } catch (RuntimeException ex) {
+            log.error("Could not verify the indexes on column_mapping", ex);
+        }
+    }
+
+    private static boolean matches(IndexDefinition definition, IndexInfo indexInfo) {
+        if (!new ArrayList<>(definition.getIndexKeys().keySet()).equals(getKeys(indexInfo))) {
+            return false;
+        }
+        Document expected = (Document) definition.getIndexOptions().get("collation");
+        Optional<Document> actual = indexInfo.getCollation();
+        if (expected == null) {
+            return actual.map(collation -> "simple".equals(collation.getString("locale"))).orElse(true);
+        }
+        return actual.isPresent()
+                && Objects.equals(expected.getString("locale"), actual.get().getString("locale"))
+                && Objects.equals(expected.get("strength"), actual.get().get("strength"));
+    }
+
+    private static List<String> getKeys(IndexInfo indexInfo) {
+        return indexInfo.getIndexFields().stream().map(IndexField::getKey).collect(Collectors.toList());
+    }
+
+}
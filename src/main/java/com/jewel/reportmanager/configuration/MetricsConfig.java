@@ -0,0 +1,87 @@
+package com.jewel.reportmanager.configuration;
+
+import com.mongodb.event.CommandEvent;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.mongodb.DefaultMongoCommandTagsProvider;
+import io.micrometer.core.instrument.binder.mongodb.MongoCommandTagsProvider;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.web.client.DefaultRestTemplateExchangeTagsProvider;
+import org.springframework.boot.actuate.metrics.web.client.RestTemplateExchangeTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adds upstream and report tags to the http.client.requests timers of every RestTemplate call and report tags
+ * to the mongodb.driver.commands timers. Both meters are registered by actuator, the report being built is read
+ * from the MDC key {@link #REPORT_MDC_KEY}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String REPORT_MDC_KEY = "report";
+
+    private static final String NONE = "none";
+
+    @Value("${user.manager.url}")
+    private String userManagerUrl;
+
+    @Value("${project.manager.url}")
+    private String projectManagerUrl;
+
+    @Value("${insertion.manager.url}")
+    private String insertionManagerUrl;
+
+    @Bean
+    public RestTemplateExchangeTagsProvider restTemplateExchangeTagsProvider() {
+        DefaultRestTemplateExchangeTagsProvider defaults = new DefaultRestTemplateExchangeTagsProvider();
+        // All upstreams may share a host, so they are told apart by their configured base url.
+        Map<String, String> upstreams = new LinkedHashMap<>();
+        upstreams.put(insertionManagerUrl, "insertion-manager");
+        upstreams.put(projectManagerUrl, "project-manager");
+        upstreams.put(userManagerUrl, "user-manager");
+        return (urlTemplate, request, response) -> Tags.of(defaults.getTags(urlTemplate, request, response))
+                .and(Tag.of("upstream", upstreamOf(upstreams, request.getURI())), reportTag());
+    }
+
+    @Bean
+    public MongoCommandTagsProvider mongoCommandTagsProvider() {
+        DefaultMongoCommandTagsProvider defaults = new DefaultMongoCommandTagsProvider();
+        return new MongoCommandTagsProvider() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                defaults.commandStarted(event);
+            }
+
+            @Override
+            public Iterable<Tag> commandTags(CommandEvent event) {
+                return Tags.of(defaults.commandTags(event)).and(reportTag());
+            }
+        };
+    }
+
+    private static Tag reportTag() {
+        String report = MDC.get(REPORT_MDC_KEY);
+        return Tag.of("report", report != null ? report : NONE);
+    }
+
+    private static String upstreamOf(Map<String, String> upstreams, URI uri) {
+        if (uri == null) {
+            return NONE;
+        }
+        String url = uri.toString();
+        for (Map.Entry<String, String> upstream : upstreams.entrySet()) {
+            if (upstream.getKey() != null && url.startsWith(upstream.getKey())) {
+                return upstream.getValue();
+            }
+        }
+        return uri.getHost() != null ? uri.getHost() : NONE;
+    }
+
+}
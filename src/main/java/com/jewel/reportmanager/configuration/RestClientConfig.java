@@ -0,0 +1,106 @@
+package com.jewel.reportmanager.configuration;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled HTTP client used by every upstream call made through {@link RestTemplate}.
+ */
+@Configuration
+public class RestClientConfig {
+
+    @Value("${rest.client.max-total:200}")
+    private int maxTotal;
+
+    @Value("${rest.client.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${rest.client.insertion-manager.max-per-route:100}")
+    private int insertionManagerMaxPerRoute;
+
+    @Value("${rest.client.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${rest.client.read-timeout-ms:60000}")
+    private int readTimeoutMs;
+
+    @Value("${rest.client.connection-request-timeout-ms:5000}")
+    private int connectionRequestTimeoutMs;
+
+    @Value("${rest.client.idle-eviction-ms:30000}")
+    private long idleEvictionMs;
+
+    @Value("${rest.client.validate-after-inactivity-ms:2000}")
+    private int validateAfterInactivityMs;
+
+    @Value("${insertion.manager.url}")
+    private String insertionManagerUrl;
+
+    @Bean
+    public PoolingHttpClientConnectionManager restClientConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setMaxPerRoute(routeOf(insertionManagerUrl), insertionManagerMaxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivityMs);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient restHttpClient(PoolingHttpClientConnectionManager restClientConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(restClientConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictionMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Built through the auto-configured builder so actuator times every call as http.client.requests.
+     */
+    @Bean
+    public RestTemplate getRestTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient restHttpClient) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(restHttpClient))
+                .build();
+    }
+
+    /**
+     * Publishes httpcomponents.httpclient.pool.* gauges (leased, available, pending, max) through actuator.
+     */
+    @Bean
+    public MeterBinder restClientPoolMetrics(PoolingHttpClientConnectionManager restClientConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(restClientConnectionManager, "reportmanager");
+    }
+
+    private static HttpRoute routeOf(String url) {
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+    }
+
+}
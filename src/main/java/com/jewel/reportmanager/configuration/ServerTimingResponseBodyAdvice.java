@@ -0,0 +1,37 @@
+package com.jewel.reportmanager.configuration;
+
+import com.jewel.reportmanager.utils.ServerTiming;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Sets the Server-Timing header with the phases recorded so far and starts the serialize phase right before the
+ * message converter writes the body, while headers can still be set. Serialization itself is therefore only in
+ * the slow request log, which the Server-Timing filter writes once the chain returns.
+ */
+@ControllerAdvice
+public class ServerTimingResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        String header = ServerTiming.currentHeader();
+        if (header != null) {
+            response.getHeaders().set(ServerTiming.HEADER, header);
+        }
+        ServerTiming.enter(ServerTiming.SERIALIZE);
+        return body;
+    }
+
+}
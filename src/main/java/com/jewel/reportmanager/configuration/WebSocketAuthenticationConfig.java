@@ -1,8 +1,11 @@
 package com.jewel.reportmanager.configuration;
 
 import com.jewel.reportmanager.service.JwtHelperService;
+import com.jewel.reportmanager.service.SuiteProgressService;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.messaging.Message;
@@ -12,7 +15,9 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -30,6 +35,10 @@ public class WebSocketAuthenticationConfig implements WebSocketMessageBrokerConf
     @Autowired
     private JwtHelperService jwtHelper;
 
+    @Lazy
+    @Autowired
+    private SuiteProgressService suiteProgressService;
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) throws NullPointerException {
         registration.interceptors(new ChannelInterceptor() {
@@ -50,6 +59,24 @@ public class WebSocketAuthenticationConfig implements WebSocketMessageBrokerConf
                             SecurityContextHolder.getContext().setAuthentication(auth);
                             accessor.setUser(auth);
                         }
+                    } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+                        String destination = accessor.getDestination();
+                        // The simple broker matches subscriptions as Ant patterns, /topic/** would receive
+                        // every suite's progress without the access check below.
+                        if (destination == null || StringUtils.containsAny(destination, '*', '?', '{')) {
+                            throw new AccessDeniedException("Subscription destinations cannot be patterns");
+                        }
+                        String s_run_id = SuiteProgressService.getS_run_id(destination);
+                        if (s_run_id == null && (destination.equals("/topic") || destination.startsWith("/topic/"))) {
+                            throw new AccessDeniedException("Only " + SuiteProgressService.TOPIC_PREFIX
+                                    + "{s_run_id} can be subscribed to under /topic");
+                        }
+                        if (s_run_id != null) {
+                            if (!(accessor.getUser() instanceof Authentication)) {
+                                throw new AccessDeniedException("Authentication is required to watch a suite");
+                            }
+                            suiteProgressService.checkAccess(s_run_id, (Authentication) accessor.getUser());
+                        }
                     }
                 }
 
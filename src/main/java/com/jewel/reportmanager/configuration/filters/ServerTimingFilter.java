@@ -0,0 +1,64 @@
+package com.jewel.reportmanager.configuration.filters;
+
+import com.jewel.reportmanager.utils.ServerTiming;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Records the fetch, acl, aggregate, render and serialize phases of the rule and action reports and logs requests
+ * slower than report.server-timing.slow-request-ms. The Server-Timing header is set by
+ * {@link com.jewel.reportmanager.configuration.ServerTimingResponseBodyAdvice} before the body is written, so the
+ * body is not buffered; responses without a body get it here. Streamed NDJSON reports are left alone.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Set<String> TIMED_PATHS = Set.of("/v1/rule", "/v3/rule/action");
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    @Value("${report.server-timing.slow-request-ms:5000}")
+    private long slowRequestMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!TIMED_PATHS.contains(request.getServletPath())) {
+            return true;
+        }
+        String accept = request.getHeader("Accept");
+        return accept != null && accept.contains(APPLICATION_NDJSON_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ServerTiming timing = ServerTiming.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            timing.stop();
+            ServerTiming.end();
+            if (!response.isCommitted() && !response.containsHeader(ServerTiming.HEADER)) {
+                response.setHeader(ServerTiming.HEADER, timing.toHeader());
+            }
+            if (timing.getTotalMillis() >= slowRequestMs) {
+                log.warn("slow_request method={} path={} query={} report={} status={} total_ms={} phases_ms={}",
+                        request.getMethod(), request.getServletPath(), request.getQueryString(), timing.getReport(),
+                        response.getStatus(), timing.getTotalMillis(), timing.getPhaseMillis());
+            }
+        }
+    }
+
+}
@@ -4,9 +4,19 @@ import com.jewel.reportmanager.dto.Response;
 import com.jewel.reportmanager.dto.RuleApiDto;
 import com.jewel.reportmanager.dto.RuleApi;
 import com.jewel.reportmanager.exception.CustomDataException;
+import com.jewel.reportmanager.enums.ExportFormat;
+import com.jewel.reportmanager.service.ActionReportCache;
+import com.jewel.reportmanager.service.ExportService;
 import com.jewel.reportmanager.service.RuleService;
+import com.jewel.reportmanager.utils.ServerTiming;
 import org.modelmapper.ModelMapper;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -16,24 +26,34 @@ import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.Map;
 
+import static com.jewel.reportmanager.configuration.MetricsConfig.REPORT_MDC_KEY;
+import static com.jewel.reportmanager.enums.OperationType.Success;
+import static com.jewel.reportmanager.utils.ReportResponseConstants.DATA_FETCHED_SUCCESSFULLY;
+import static com.jewel.reportmanager.utils.ReportResponseConstants.EXPORT_JOB_SUBMITTED;
+
 @Validated
 @RestController
 public class RuleController {
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     @Autowired
     private RuleService ruleService;
     @Autowired
     private ModelMapper modelMapper;
+    @Autowired
+    private ExportService exportService;
 
     @PostMapping(path = "/v1/rule", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Response> getRuleReport(@RequestBody @Valid final RuleApiDto payload,
                                                   @RequestParam(value = "pageNo", required = false) final Integer pageNo,
                                                   @RequestParam(value = "sort", required = false) final Integer sort,
                                                   @RequestParam(value = "sortedColumn", required = false) final String sortedColumn) throws ParseException {
-        try {
+        try (MDC.MDCCloseable ignored = reportContext("rule-" + payload.getReportid())) {
             RuleApi ruleApi = modelMapper.map(payload, RuleApi.class);
             return ResponseEntity.ok(ruleService.getRuleReport(ruleApi, pageNo, sort, sortedColumn));
         } catch (CustomDataException ex) {
@@ -41,14 +61,76 @@ public class RuleController {
         }
     }
 
+    @PostMapping(path = "/v1/rule", produces = RuleController.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> streamRuleReport(@RequestBody @Valid final RuleApiDto payload,
+                                              @RequestParam(value = "sort", required = false) final Integer sort,
+                                              @RequestParam(value = "sortedColumn", required = false) final String sortedColumn) {
+        try (MDC.MDCCloseable ignored = reportContext("rule-" + payload.getReportid())) {
+            RuleApi ruleApi = modelMapper.map(payload, RuleApi.class);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                    .body(ruleService.streamRuleReport(ruleApi, sort, sortedColumn));
+        } catch (CustomDataException ex) {
+            return ResponseEntity.status(ex.getHttpStatus()).contentType(MediaType.APPLICATION_JSON)
+                    .body(new Response(ex.getData(), ex.getMessage(), ex.getOperationType()));
+        }
+    }
+
+    @PostMapping(path = "/v1/rule/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Response> exportRuleReport(@RequestBody @Valid final RuleApiDto payload,
+                                                     @RequestParam(value = "format", defaultValue = "CSV") final ExportFormat format,
+                                                     @RequestParam(value = "sort", required = false) final Integer sort,
+                                                     @RequestParam(value = "sortedColumn", required = false) final String sortedColumn) {
+        try (MDC.MDCCloseable ignored = reportContext("export-" + payload.getReportid())) {
+            RuleApi ruleApi = modelMapper.map(payload, RuleApi.class);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new Response(exportService.submit(ruleApi, format, sort, sortedColumn), EXPORT_JOB_SUBMITTED, Success));
+        } catch (CustomDataException ex) {
+            return ResponseEntity.status(ex.getHttpStatus()).body(new Response(ex.getData(), ex.getMessage(), ex.getOperationType()));
+        }
+    }
+
+    @GetMapping(path = "/v1/rule/export/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Response> getExportJob(@PathVariable("jobId") final String jobId) {
+        try {
+            return ResponseEntity.ok(new Response(exportService.getJob(jobId), DATA_FETCHED_SUCCESSFULLY, Success));
+        } catch (CustomDataException ex) {
+            return ResponseEntity.status(ex.getHttpStatus()).body(new Response(ex.getData(), ex.getMessage(), ex.getOperationType()));
+        }
+    }
+
+    @GetMapping(path = "/v1/rule/export/{jobId}/file")
+    public ResponseEntity<?> downloadExport(@PathVariable("jobId") final String jobId) {
+        try {
+            Path file = exportService.getFile(jobId);
+            ExportFormat format = exportService.getJob(jobId).getFormat();
+            String fileName = file.getFileName().toString();
+            // Range requests are answered with 206 Partial Content by Spring for Resource bodies.
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(format.mediaType))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(fileName).build().toString())
+                    .body(new FileSystemResource(file));
+        } catch (CustomDataException ex) {
+            return ResponseEntity.status(ex.getHttpStatus()).contentType(MediaType.APPLICATION_JSON)
+                    .body(new Response(ex.getData(), ex.getMessage(), ex.getOperationType()));
+        }
+    }
+
     @GetMapping(path = "/v3/rule/action", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Response> getRuleActionReportV3(@RequestParam(required = false) final String s_run_id,
+    public ResponseEntity<?> getRuleActionReportV3(@RequestParam(required = false) final String s_run_id,
                                                           @RequestParam(required = false) final String tc_run_id, HttpServletRequest request,
                                                           @RequestParam(value = "pageNo", required = false) final Integer pageNo,
                                                           @RequestParam(value = "sort", required = false) final Integer sort,
                                                           @RequestParam(value = "sortedColumn", required = false) final String sortedColumn) {
-        try {
-            return ResponseEntity.ok(ruleService.getRuleActionReportV3(s_run_id, tc_run_id, pageNo, sort, sortedColumn));
+        try (MDC.MDCCloseable ignored = reportContext("action")) {
+            ActionReportCache.RenderedReport report = ruleService.getRuleActionReportV3(s_run_id, tc_run_id, pageNo, sort, sortedColumn);
+            if (report.getEtag() == null) {
+                return ResponseEntity.ok(report.getResponse());
+            }
+            // Spring answers 304 Not Modified without writing the body when If-None-Match matches the ETag.
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).eTag(report.getEtag())
+                    .contentType(MediaType.APPLICATION_JSON).body(report.getBody());
         } catch (CustomDataException ex) {
             return ResponseEntity.status(ex.getHttpStatus()).body(new Response(ex.getData(), ex.getMessage(), ex.getOperationType(), ex.getSubOperationType()));
         }
@@ -92,11 +174,23 @@ public class RuleController {
                                                   @RequestParam(value = "pageNo", required = false) final Integer pageNo,
                                                   @RequestParam(value = "sort", required = false) final Integer sort,
                                                   @RequestParam(value = "sortedColumn", required = false) final String sortedColumn) throws ParseException {
-        try {
+        try (MDC.MDCCloseable ignored = reportContext("timeline")) {
             return ResponseEntity.ok(ruleService.getSuiteTimeline(payload, request, category, search, pageNo, sort, sortedColumn));
         } catch (CustomDataException ex) {
             return ResponseEntity.status(ex.getHttpStatus()).body(new Response(ex.getData(), ex.getMessage(), ex.getOperationType(), ex.getSubOperationType()));
         }
     }
 
+    /**
+     * Names the report being built for the metric tags and the slow request log until the returned closeable is
+     * closed.
+     *
+     * @param report
+     * @return MDC.MDCCloseable
+     */
+    private static MDC.MDCCloseable reportContext(String report) {
+        ServerTiming.setReport(report);
+        return MDC.putCloseable(REPORT_MDC_KEY, report);
+    }
+
 }
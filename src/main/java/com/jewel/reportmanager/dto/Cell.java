@@ -0,0 +1,209 @@
+package com.jewel.reportmanager.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A single report cell: value, type, sortValue and align plus optional descriptor entries such as subType or
+ * heading. Serializes to the same JSON object as the map it replaces, but keeps the fixed entries in fields and
+ * shares descriptor maps between cells instead of copying them.
+ */
+@JsonSerialize(using = Cell.Serializer.class)
+public class Cell extends AbstractMap<String, Object> {
+
+    public static final Map<String, Object> SUBTYPE_DATETIME = Map.of("subType", "datetime");
+    public static final Map<String, Object> SUBTYPE_DURATION = Map.of("subType", "duration");
+    public static final Map<String, Object> SUBTYPE_EXECUTION_REPORT = Map.of("subType", "execution_report");
+    public static final Map<String, Object> SUBTYPE_TESTSTEP_REPORT = Map.of("subType", "teststep_report");
+    public static final Map<String, Object> SUBTYPE_FALSE_VARIANCE = Map.of("subType", "falseVariance");
+    public static final Map<String, Object> SUBTYPE_TIMELINE_TC = Map.of("subType", "timeline_tc");
+    public static final Map<String, Object> DOUGHNUT_TOTAL_TESTCASES = Map.of("subType", "doughnut_chart",
+            "heading", "Total Testcase(s)");
+    public static final Map<String, Object> DOUGHNUT_TOTAL_SUITES = Map.of("subType", "doughnut_chart",
+            "heading", "Total Suite(s)");
+
+    private static final String VALUE = "value";
+    private static final String TYPE = "type";
+    private static final String SORT_VALUE = "sortValue";
+    private static final String ALIGN = "align";
+    private static final String[] FIXED_KEYS = {VALUE, TYPE, SORT_VALUE, ALIGN};
+
+    private Object value;
+    private Object type;
+    private Object sortValue;
+    private Object align;
+    private Map<String, Object> extras;
+    private boolean extrasOwned;
+
+    public Cell(Object value, String type, Object sortValue, String align) {
+        this.value = value;
+        this.type = type;
+        this.sortValue = sortValue;
+        this.align = align;
+    }
+
+    /**
+     * The extras map is kept by reference and copied on first write, so shared descriptors stay untouched.
+     * Fixed entries present in extras take precedence, as they did when the extras were put into the map.
+     */
+    public Cell(Object value, String type, Object sortValue, String align, Map<String, Object> extras) {
+        this(value, type, sortValue, align);
+        if (extras == null || extras.isEmpty()) {
+            return;
+        }
+        for (String key : FIXED_KEYS) {
+            if (extras.containsKey(key)) {
+                extras.forEach(this::put);
+                return;
+            }
+        }
+        this.extras = extras;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public Object getType() {
+        return type;
+    }
+
+    public Object getSortValue() {
+        return sortValue;
+    }
+
+    public Object getAlign() {
+        return align;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (VALUE.equals(key)) {
+            return value;
+        } else if (TYPE.equals(key)) {
+            return type;
+        } else if (SORT_VALUE.equals(key)) {
+            return sortValue;
+        } else if (ALIGN.equals(key)) {
+            return align;
+        }
+        return extras != null ? extras.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return VALUE.equals(key) || TYPE.equals(key) || SORT_VALUE.equals(key) || ALIGN.equals(key)
+                || (extras != null && extras.containsKey(key));
+    }
+
+    @Override
+    public Object put(String key, Object newValue) {
+        Object previous = get(key);
+        if (VALUE.equals(key)) {
+            value = newValue;
+        } else if (TYPE.equals(key)) {
+            type = newValue;
+        } else if (SORT_VALUE.equals(key)) {
+            sortValue = newValue;
+        } else if (ALIGN.equals(key)) {
+            align = newValue;
+        } else {
+            ownExtras().put(key, newValue);
+        }
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (extras == null || !extras.containsKey(key)) {
+            return null;
+        }
+        return ownExtras().remove(key);
+    }
+
+    @Override
+    public int size() {
+        return FIXED_KEYS.length + (extras != null ? extras.size() : 0);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int fixed;
+                    private final Iterator<Entry<String, Object>> rest = extras != null
+                            ? extras.entrySet().iterator() : null;
+
+                    @Override
+                    public boolean hasNext() {
+                        return fixed < FIXED_KEYS.length || (rest != null && rest.hasNext());
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (fixed < FIXED_KEYS.length) {
+                            String key = FIXED_KEYS[fixed++];
+                            return new SimpleImmutableEntry<>(key, get(key));
+                        }
+                        if (rest == null) {
+                            throw new NoSuchElementException();
+                        }
+                        return rest.next();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return Cell.this.size();
+            }
+        };
+    }
+
+    private Map<String, Object> ownExtras() {
+        if (!extrasOwned) {
+            extras = extras != null ? new LinkedHashMap<>(extras) : new LinkedHashMap<>();
+            extrasOwned = true;
+        }
+        return extras;
+    }
+
+    /**
+     * Writes the fixed entries straight from the fields, then the extras.
+     */
+    public static class Serializer extends StdSerializer<Cell> {
+
+        public Serializer() {
+            super(Cell.class);
+        }
+
+        @Override
+        public void serialize(Cell cell, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(cell);
+            provider.defaultSerializeField(VALUE, cell.value, gen);
+            provider.defaultSerializeField(TYPE, cell.type, gen);
+            provider.defaultSerializeField(SORT_VALUE, cell.sortValue, gen);
+            provider.defaultSerializeField(ALIGN, cell.align, gen);
+            if (cell.extras != null) {
+                for (Entry<String, Object> entry : cell.extras.entrySet()) {
+                    provider.defaultSerializeField(entry.getKey(), entry.getValue(), gen);
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+
+}
@@ -7,6 +7,10 @@ public class DependencyTree {
     public Test data;
     public ArrayList<DependencyTree> child;
 
+    public DependencyTree() {
+        child = new ArrayList<>();
+    }
+
     public DependencyTree(Test data) {
         this.data = data;
         child = new ArrayList<>();
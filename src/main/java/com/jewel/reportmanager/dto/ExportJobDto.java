@@ -0,0 +1,38 @@
+package com.jewel.reportmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.jewel.reportmanager.enums.ExportFormat;
+import com.jewel.reportmanager.enums.ExportStatus;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExportJobDto {
+
+    private String jobId;
+
+    private long reportid;
+
+    private ExportFormat format;
+
+    private ExportStatus status;
+
+    private long rowsWritten;
+
+    private List<String> errors;
+
+    private String message;
+
+    private Long createdAt;
+
+    private Long completedAt;
+
+}
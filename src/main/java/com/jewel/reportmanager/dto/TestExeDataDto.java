@@ -0,0 +1,17 @@
+package com.jewel.reportmanager.dto;
+
+import com.mongodb.BasicDBObject;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class TestExeDataDto {
+
+    private long count;
+
+    private List<BasicDBObject> results;
+
+}
@@ -24,6 +24,13 @@ public class ColumnMapping {
     @Transient
     public static final String SEQUENCE_NAME = "col_id";
 
+    /**
+     * Collation of the case-insensitive name lookups, must match the collation of the indexes created by
+     * ColumnMappingIndexVerifier for those lookups to be index scans.
+     */
+    @Transient
+    public static final String CASE_INSENSITIVE_COLLATION = "{ 'locale': 'en', 'strength': 2 }";
+
     @Id
     private Long id;
 
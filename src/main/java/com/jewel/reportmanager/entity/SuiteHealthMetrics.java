@@ -0,0 +1,146 @@
+package com.jewel.reportmanager.entity;
+
+import com.jewel.reportmanager.utils.ReportUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Health metrics of one suite over one report window. The id is project:report_name:env followed by the window,
+ * so reports over different windows keep their own documents. The fingerprint fields describe the suite runs and
+ * the test exe classifications and variances the metrics were computed from; a stored document is only reused
+ * while they still match.
+ */
+@Getter
+@Setter
+@Document(collection = "suite_health_metrics")
+public class SuiteHealthMetrics {
+
+    @Id
+    private String id;
+
+    private String key;
+
+    private long startTime;
+
+    private long endTime;
+
+    private Long pid;
+
+    private String projectName;
+
+    private String reportName;
+
+    private String env;
+
+    private int suiteCount;
+
+    private String newestS_run_id;
+
+    private String statusDigest;
+
+    private String testExeDigest;
+
+    private double brokenIndex;
+
+    private long averageFixTime;
+
+    private Long downTimeSince;
+
+    private long failedSuiteCount;
+
+    private double totalTestCaseCount;
+
+    private double failTestCaseCount;
+
+    private double qaScore;
+
+    private List<TestCaseFailure> culprits = new ArrayList<>();
+
+    private Long culpritAverage;
+
+    private long updatedAt;
+
+    /**
+     * Returns the id of the metrics of a suite over a report window. The window goes last, its numbers never
+     * contain the separator, so ids stay unique whatever the report name holds.
+     *
+     * @param key - project:report_name:env
+     * @param startTime
+     * @param endTime
+     * @return String
+     */
+    public static String id(String key, long startTime, long endTime) {
+        return key + ":" + startTime + ":" + endTime;
+    }
+
+    /**
+     * Returns the downtime in seconds at now.
+     *
+     * @param now
+     * @return long
+     */
+    public long getDownTime(long now) {
+        return ReportUtils.getDownTime(downTimeSince, now);
+    }
+
+    /**
+     * Returns a fresh copy of the culprit map in the shape {@link ReportUtils#culprit} returns it, null when no
+     * test case failed.
+     *
+     * @return Map<String, Long>
+     */
+    public Map<String, Long> getCulpritMap() {
+        if (culpritAverage == null) {
+            return null;
+        }
+        Map<String, Long> culprit = new HashMap<>();
+        for (TestCaseFailure failure : culprits) {
+            culprit.put(failure.getName(), failure.getPercentage());
+        }
+        culprit.put("average", culpritAverage);
+        return culprit;
+    }
+
+    /**
+     * Stores a culprit map as returned by {@link ReportUtils#culprit}. Test case names are kept as values
+     * because they may contain characters that are not allowed in field names.
+     *
+     * @param culprit
+     */
+    public void setCulpritMap(Map<String, Long> culprit) {
+        culprits = new ArrayList<>();
+        culpritAverage = null;
+        if (culprit == null) {
+            return;
+        }
+        for (Map.Entry<String, Long> entry : culprit.entrySet()) {
+            if (entry.getKey().equals("average")) {
+                culpritAverage = entry.getValue();
+            } else {
+                culprits.add(new TestCaseFailure(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestCaseFailure {
+
+        private String name;
+
+        private Long percentage;
+
+    }
+
+}
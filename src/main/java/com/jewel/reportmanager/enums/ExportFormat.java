@@ -0,0 +1,16 @@
+package com.jewel.reportmanager.enums;
+
+public enum ExportFormat {
+
+    CSV("text/csv", ".csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", ".xlsx");
+
+
+    public final String mediaType;
+    public final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+}
@@ -0,0 +1,8 @@
+package com.jewel.reportmanager.enums;
+
+public enum ExportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -4,16 +4,15 @@ package com.jewel.reportmanager.repository;
 import com.jewel.reportmanager.entity.ColumnMapping;
 import com.jewel.reportmanager.enums.ColumnLevel;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 public interface ColumnMappingRepository extends MongoRepository<ColumnMapping,Long> {
 
+  @Query(value = "{ 'level': ?0, 'pid': ?1, 'name': ?2, 'isDeleted': ?3 }", collation = ColumnMapping.CASE_INSENSITIVE_COLLATION)
   ColumnMapping findByLevelAndPidAndNameIgnoreCaseAndIsDeleted(ColumnLevel columnLevel, Long pid, String name, boolean isDeleted);
 
   ColumnMapping findByIdAndIsDeleted(Long id, boolean b);
 
-  ColumnMapping findByLevelAndPidAndIsDeleted(ColumnLevel project, Long pid, boolean b);
-
+  @Query(value = "{ 'level': ?0, 'name': ?1, 'isDeleted': ?2 }", collation = ColumnMapping.CASE_INSENSITIVE_COLLATION)
   ColumnMapping findByLevelAndNameIgnoreCaseAndIsDeleted(ColumnLevel framework, String framework1, boolean b);
-
-  ColumnMapping findByLevelAndNameContainingIgnoreCaseAndIsDeleted(ColumnLevel framework, String framework1, boolean b);
 }
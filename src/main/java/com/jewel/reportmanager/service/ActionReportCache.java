@@ -0,0 +1,183 @@
+package com.jewel.reportmanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jewel.reportmanager.dto.Response;
+import com.jewel.reportmanager.dto.SuiteExeDto;
+import com.jewel.reportmanager.dto.TestExeDto;
+import com.jewel.reportmanager.dto.VarianceClassificationDto;
+import com.jewel.reportmanager.utils.RestApiUtils;
+import com.jewel.reportmanager.utils.ServerTiming;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps rendered /v3/rule/action reports of suites that are no longer executing as serialized JSON. Entries are
+ * keyed by the request parameters, the user (the report carries the user's project role) and a version digest of
+ * the suite, its active variances and the classifications and variance ids of its test exes, so a changed suite,
+ * variance or false positive is a cache miss even when it was changed through another instance. The test exes
+ * come from the insertion manager like the report rows do, so a hit still fetches them and only saves rendering
+ * and serialization. Each entry carries a strong ETag, the SHA-256 of its body, and the cache is bounded by the
+ * total size of the bodies it holds. Entries of a suite are dropped when its build details are updated, and after
+ * report.action-cache.ttl-ms in any case so changes to column mappings show up.
+ */
+@Slf4j
+@Service
+public class ActionReportCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, RenderedReport> reports;
+
+    public ActionReportCache(ObjectMapper objectMapper,
+                             @Value("${report.action-cache.maximum-bytes:134217728}") long maximumBytes,
+                             @Value("${report.action-cache.ttl-ms:600000}") long ttlMs) {
+        this.objectMapper = objectMapper;
+        this.reports = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .<String, RenderedReport>weigher((key, report) -> report.body.length)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the version digest of a suite, the active variances applied to its report and the classifications
+     * (false positives) and variance ids of its test exes.
+     *
+     * @param suite
+     * @param varianceList
+     * @return String
+     */
+    public String getVersion(SuiteExeDto suite, Map<Long, VarianceClassificationDto> varianceList) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(objectMapper.writeValueAsBytes(suite));
+            digest.update(objectMapper.writeValueAsBytes(new TreeMap<>(varianceList)));
+            digest.update(objectMapper.writeValueAsBytes(getClassifications(suite.getS_run_id())));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize suite " + suite.getS_run_id(), ex);
+        }
+    }
+
+    /**
+     * Returns the classification and variance fields of the test exes of a suite that have any, by tc_run_id.
+     */
+    private Map<String, Object> getClassifications(String s_run_id) {
+        Map<String, Object> classifications = new TreeMap<>();
+        for (TestExeDto testExe : ServerTiming.time(ServerTiming.FETCH,
+                () -> RestApiUtils.fetchTestExes(s_run_id, null, null))) {
+            boolean stepVariances = testExe.getStepVarianceIds() != null && !testExe.getStepVarianceIds().isEmpty();
+            if (testExe.getClassificationDetails() != null || testExe.getVarianceId() != null || stepVariances) {
+                classifications.put(testExe.getTc_run_id(), Arrays.asList(testExe.getClassificationDetails(),
+                        testExe.getVarianceId(), testExe.getStepVarianceIds()));
+            }
+        }
+        return classifications;
+    }
+
+    /**
+     * Returns the cached report for the key, rendering and caching it on a miss.
+     *
+     * @param s_run_id
+     * @param key
+     * @param render
+     * @return RenderedReport
+     */
+    public RenderedReport get(String s_run_id, String key, Supplier<Response> render) {
+        String cacheKey = s_run_id + '\u0000' + key;
+        RenderedReport report = reports.getIfPresent(cacheKey);
+        if (report != null) {
+            return report;
+        }
+        // Rendered outside the cache's compute so a slow report does not block other keys.
+        Response response = render.get();
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            report = new RenderedReport(null, body, Base64.getUrlEncoder().withoutPadding().encodeToString(hash));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        } catch (JsonProcessingException ex) {
+            log.error("Cannot serialize the report of suite {}, serving it uncached", s_run_id, ex);
+            return RenderedReport.uncached(response);
+        }
+        reports.put(cacheKey, report);
+        return report;
+    }
+
+    /**
+     * Drops every cached report of the suite.
+     *
+     * @param s_run_id
+     */
+    public void invalidate(String s_run_id) {
+        String prefix = s_run_id + '\u0000';
+        reports.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public static final class RenderedReport {
+
+        private final Response response;
+        private final byte[] body;
+        private final String etag;
+
+        private RenderedReport(Response response, byte[] body, String etag) {
+            this.response = response;
+            this.body = body;
+            this.etag = etag;
+        }
+
+        /**
+         * Wraps a report that is not cached and has no ETag.
+         *
+         * @param response
+         * @return RenderedReport
+         */
+        public static RenderedReport uncached(Response response) {
+            return new RenderedReport(response, null, null);
+        }
+
+        /**
+         * Returns the report of an uncached entry, null for a cached one.
+         *
+         * @return Response
+         */
+        public Response getResponse() {
+            return response;
+        }
+
+        /**
+         * Returns the serialized JSON body of a cached entry, null for an uncached one.
+         *
+         * @return byte[]
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * Returns the strong ETag value, quoted, or null when the report is not cached.
+         *
+         * @return String
+         */
+        public String getEtag() {
+            return etag != null ? "\"" + etag + "\"" : null;
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.jewel.reportmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jewel.reportmanager.entity.ColumnMapping;
+import com.jewel.reportmanager.enums.ColumnLevel;
+import com.jewel.reportmanager.repository.ColumnMappingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.jewel.reportmanager.utils.ReportResponseConstants.GEM_PYP;
+
+/**
+ * Resolves column mappings from an in-memory snapshot of the small column_mapping collection. The snapshot is
+ * reloaded after every add, update or delete made through {@link ColumnMappingService} and, to pick up writes
+ * from other instances, once it is older than report.column-mapping.refresh-ms. Resolved column lists are
+ * memoised per snapshot; callers always get their own copy.
+ */
+@Slf4j
+@Service
+public class ColumnMappingCache {
+
+    private static final List<ColumnLevel> LEVELS_TO_CHECK = List.of(ColumnLevel.JOB_NAME, ColumnLevel.PROJECT_REPORT);
+
+    @Autowired
+    private ColumnMappingRepository columnMappingRepository;
+
+    @Value("${report.column-mapping.refresh-ms:300000}")
+    private long refreshMs;
+
+    @Value("${report.column-mapping.maximum-size:10000}")
+    private long maximumSize;
+
+    private volatile Snapshot snapshot;
+
+    // Bumped by every invalidate, so a load that read the collection before a write cannot install its snapshot.
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Resolves the columns for pid, name and frameworks: job name and project report level mappings first,
+     * then the project level mapping, then the union of all matching framework level mappings.
+     *
+     * @param pid
+     * @param name
+     * @param frameworks
+     * @return List<String>
+     */
+    public List<String> resolve(Long pid, String name, List<String> frameworks) {
+        Snapshot current = getSnapshot();
+        String key = pid + "\u0000" + lowerCase(name) + "\u0000" + String.join("\u0000", frameworks);
+        Optional<List<String>> columns = current.resolved.get(key, k -> Optional.ofNullable(
+                current.resolve(pid, name, frameworks)));
+        return columns.map(ArrayList::new).orElse(null);
+    }
+
+    /**
+     * Drops the snapshot, the next lookup reloads it.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && new Date().getTime() - current.loadedAt < refreshMs) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || new Date().getTime() - current.loadedAt >= refreshMs) {
+                long loadGeneration = generation.get();
+                List<ColumnMapping> mappings = columnMappingRepository.findAll(Sort.by("_id"));
+                current = new Snapshot(mappings, maximumSize);
+                if (generation.get() == loadGeneration) {
+                    snapshot = current;
+                }
+                log.info("Loaded {} column mappings", mappings.size());
+            }
+            return current;
+        }
+    }
+
+    private static String lowerCase(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static final class Snapshot {
+
+        private final long loadedAt = new Date().getTime();
+        private final Map<String, ColumnMapping> byLevelPidAndName = new HashMap<>();
+        private final Map<Long, ColumnMapping> byProject = new HashMap<>();
+        private final List<ColumnMapping> frameworks = new ArrayList<>();
+        private final Cache<String, Optional<List<String>>> resolved;
+
+        private Snapshot(List<ColumnMapping> mappings, long maximumSize) {
+            resolved = Caffeine.newBuilder().maximumSize(maximumSize).build();
+            for (ColumnMapping mapping : mappings) {
+                if (mapping.isDeleted() || mapping.getLevel() == null) {
+                    continue;
+                }
+                switch (mapping.getLevel()) {
+                    case JOB_NAME:
+                    case PROJECT_REPORT:
+                        byLevelPidAndName.putIfAbsent(
+                                levelPidAndName(mapping.getLevel(), mapping.getPid(), mapping.getName()), mapping);
+                        break;
+                    case PROJECT:
+                        byProject.putIfAbsent(mapping.getPid(), mapping);
+                        break;
+                    case FRAMEWORK:
+                        frameworks.add(mapping);
+                        break;
+                }
+            }
+        }
+
+        private List<String> resolve(Long pid, String name, List<String> frameworkNames) {
+            for (ColumnLevel level : LEVELS_TO_CHECK) {
+                ColumnMapping columnMapping = byLevelPidAndName.get(levelPidAndName(level, pid, name));
+                if (columnMapping != null && !columnMapping.getColumns().isEmpty()) {
+                    log.debug("Found matching column mapping. PID: {}, Name: {}, Level: {}", pid, name, level);
+                    return Collections.unmodifiableList(columnMapping.getColumns());
+                }
+            }
+
+            ColumnMapping columnMapping = byProject.get(pid);
+            if (columnMapping != null) {
+                log.debug("Found matching column mapping at the project level. PID: {}", pid);
+                return !columnMapping.getColumns().isEmpty()
+                        ? Collections.unmodifiableList(columnMapping.getColumns()) : null;
+            }
+
+            List<String> columns = new ArrayList<>();
+            for (String framework : frameworkNames) {
+                String frameworkName = framework.toUpperCase().contains(GEM_PYP) ? GEM_PYP : framework;
+                ColumnMapping frameworkMapping = findFrameworkContaining(frameworkName);
+                if (frameworkMapping != null && !frameworkMapping.getColumns().isEmpty()) {
+                    columns.addAll(frameworkMapping.getColumns());
+                }
+            }
+            return Collections.unmodifiableList(columns);
+        }
+
+        private ColumnMapping findFrameworkContaining(String frameworkName) {
+            String lowerCaseName = lowerCase(frameworkName);
+            for (ColumnMapping mapping : frameworks) {
+                if (mapping.getName() != null && lowerCase(mapping.getName()).contains(lowerCaseName)) {
+                    return mapping;
+                }
+            }
+            return null;
+        }
+
+        private static String levelPidAndName(ColumnLevel level, Long pid, String name) {
+            return level + "\u0000" + pid + "\u0000" + lowerCase(name);
+        }
+    }
+}
@@ -28,6 +28,8 @@ public class ColumnMappingService {
     private ColumnMappingRepository columnMappingRepository;
     @Autowired
     private SequenceGenerator sequenceGenerator;
+    @Autowired
+    private ColumnMappingCache columnMappingCache;
 
 
     /**
@@ -138,6 +140,7 @@ public class ColumnMappingService {
         columnMapping.setUpdatedAt(new Date().getTime());
         columnMapping.setUpdatedBy(username);
         columnMappingRepository.save(columnMapping);
+        columnMappingCache.invalidate();
 
         log.info("Column Mapping deleted successfully. User: {}, Column Mapping ID: {}", username, id);
 
@@ -154,32 +157,8 @@ public class ColumnMappingService {
      * @return A list of column mappings that match the criteria.
      */
     public List<String> findColumnMapping(Long pid, String name, List<String> frameworks) {
-        ColumnMapping columnMapping;
-        List<ColumnLevel> levelsToCheck = Arrays.asList(ColumnLevel.JOB_NAME, ColumnLevel.PROJECT_REPORT);
-        for (ColumnLevel level : levelsToCheck) {
-            columnMapping = columnMappingRepository.findByLevelAndPidAndNameIgnoreCaseAndIsDeleted(level, pid, name, false);
-            if (columnMapping != null && !columnMapping.getColumns().isEmpty()) {
-                log.info("Found matching column mapping. PID: {}, Name: {}, Level: {}", pid, name, level);
-                return columnMapping.getColumns();
-            }
-        }
-
-        columnMapping = columnMappingRepository.findByLevelAndPidAndIsDeleted(ColumnLevel.PROJECT, pid, false);
-        if (columnMapping != null) {
-            log.info("Found matching column mapping at the project level. PID: {}", pid);
-            return !columnMapping.getColumns().isEmpty() ? columnMapping.getColumns() : null;
-        }
-
-        List<String> columns = new ArrayList<>();
-        for (String framework : frameworks) {
-            String frameworkName = framework.toUpperCase().contains(GEM_PYP) ? GEM_PYP : framework;
-            ColumnMapping columnMapping1 = columnMappingRepository.findByLevelAndNameContainingIgnoreCaseAndIsDeleted(ColumnLevel.FRAMEWORK, frameworkName, false);
-            if (columnMapping1 != null && !columnMapping1.getColumns().isEmpty()) {
-                log.info("Found matching column mapping for framework: {}. Columns: {}", frameworkName, columnMapping1.getColumns());
-                columns.addAll(columnMapping1.getColumns());
-            }
-        }
-        log.info("Returning the list of matching columns: {}", columns);
+        List<String> columns = columnMappingCache.resolve(pid, name, frameworks);
+        log.info("Returning the list of matching columns. PID: {}, Name: {}, Columns: {}", pid, name, columns);
         return columns;
     }
 
@@ -204,6 +183,7 @@ public class ColumnMappingService {
         Map<String, Object> map = new HashMap<>();
         map.put("ID", columnMapping.getId());
         columnMappingRepository.save(columnMapping);
+        columnMappingCache.invalidate();
         log.info("Column mapping processed. ID: {}", columnMapping.getId());
         return map;
     }
@@ -0,0 +1,408 @@
+package com.jewel.reportmanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.jewel.reportmanager.dto.Cell;
+import com.jewel.reportmanager.dto.ExportJobDto;
+import com.jewel.reportmanager.dto.RuleApi;
+import com.jewel.reportmanager.enums.ExportFormat;
+import com.jewel.reportmanager.enums.ExportStatus;
+import com.jewel.reportmanager.exception.CustomDataException;
+import com.jewel.reportmanager.utils.FanOutUtils;
+import com.jewel.reportmanager.utils.ReportUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.jewel.reportmanager.enums.OperationType.Failure;
+import static com.jewel.reportmanager.utils.ReportResponseConstants.EXPORT_JOB_NOT_FOUND;
+import static com.jewel.reportmanager.utils.ReportResponseConstants.EXPORT_NOT_READY;
+import static com.jewel.reportmanager.utils.ReportResponseConstants.EXPORT_QUEUE_FULL;
+
+/**
+ * Exports rule reports to CSV or XLSX files in the background. A job is submitted with the same payload as
+ * /v1/rule; the access check runs on the request thread, then the rows are written page by page on the
+ * taskExecutor pool, so memory stays bounded by one report page (XLSX keeps a window of rows and flushes the rest
+ * to disk). The upstream calls of an export fan out on the exportFanOutExecutor pool, apart from interactive
+ * reports. Progress is sent to the user's /user/export queue after every page. Jobs and their files live on the
+ * instance that ran them and are deleted report.export.ttl-ms after their last update; when more than
+ * report.export.maximum-jobs have finished, the least recently used finished ones go first. Queued and running
+ * jobs are never evicted for size.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    public static final String EXPORT_DESTINATION = "/export";
+
+    private static final int XLSX_ROW_WINDOW = 100;
+    private static final int XLSX_MAX_CELL_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+    private static final int XLSX_MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Autowired
+    private SimpMessageSendingOperations simpMessagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    @Autowired
+    @Qualifier("exportFanOutExecutor")
+    private Executor exportFanOutExecutor;
+
+    private final Path exportDir;
+
+    private final Cache<String, ExportJob> jobs;
+
+    public ExportService(@Value("${report.export.dir:${java.io.tmpdir}}") String exportDir,
+                         @Value("${report.export.ttl-ms:3600000}") long ttlMs,
+                         @Value("${report.export.maximum-jobs:1000}") long maximumJobs) {
+        this.exportDir = Paths.get(exportDir);
+        this.jobs = Caffeine.newBuilder()
+                .maximumWeight(maximumJobs)
+                // Unfinished jobs weigh nothing, so their file cannot be deleted while it is written.
+                .weigher((String jobId, ExportJob job) -> job.completedAt == null ? 0 : 1)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String jobId, ExportJob job, RemovalCause cause) -> {
+                    if (job != null && cause.wasEvicted()) {
+                        job.deleteFile();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Checks access to the report and queues the export.
+     *
+     * @param payload
+     * @param format
+     * @param sort
+     * @param sortedColumn
+     * @return ExportJobDto
+     */
+    public ExportJobDto submit(RuleApi payload, ExportFormat format, Integer sort, String sortedColumn) {
+        CompletableFuture<List<String>> errors = ruleService.checkRuleReportAccess(payload, sort, sortedColumn);
+        List<Object> headers = RuleService.getRuleReportHeaders(payload.getReportid());
+        ExportJob job = new ExportJob(ReportUtils.getUsernameFromServletRequest(), payload.getReportid(), format);
+        jobs.put(job.jobId, job);
+        try {
+            taskExecutor.execute(() -> FanOutUtils.runOn(exportFanOutExecutor,
+                    () -> export(job, payload, sort, sortedColumn, headers, errors)));
+        } catch (TaskRejectedException ex) {
+            jobs.invalidate(job.jobId);
+            log.error("Export queue is full, rejected export of report {}", payload.getReportid());
+            throw new CustomDataException(EXPORT_QUEUE_FULL, null, Failure, HttpStatus.TOO_MANY_REQUESTS);
+        }
+        log.info("Queued export job {} of report {} as {}", job.jobId, payload.getReportid(), format);
+        return job.toDto();
+    }
+
+    /**
+     * Returns the state of an export job of the current user.
+     *
+     * @param jobId
+     * @return ExportJobDto
+     */
+    public ExportJobDto getJob(String jobId) {
+        return getOwnJob(jobId).toDto();
+    }
+
+    /**
+     * Returns the file of a completed export job of the current user.
+     *
+     * @param jobId
+     * @return Path
+     */
+    public Path getFile(String jobId) {
+        ExportJob job = getOwnJob(jobId);
+        if (job.status != ExportStatus.COMPLETED) {
+            log.error("Export job {} is {}", jobId, job.status);
+            throw new CustomDataException(EXPORT_NOT_READY, job.toDto(), Failure, HttpStatus.CONFLICT);
+        }
+        return job.file;
+    }
+
+    private ExportJob getOwnJob(String jobId) {
+        ExportJob job = jobs.getIfPresent(jobId);
+        // Other users' jobs are reported as missing so job ids cannot be probed.
+        if (job == null || !job.username.equals(ReportUtils.getUsernameFromServletRequest())) {
+            log.error("Export job {} not found", jobId);
+            throw new CustomDataException(EXPORT_JOB_NOT_FOUND, null, Failure, HttpStatus.NOT_FOUND);
+        }
+        return job;
+    }
+
+    private void export(ExportJob job, RuleApi payload, Integer sort, String sortedColumn, List<Object> headers,
+            CompletableFuture<List<String>> errors) {
+        job.status = ExportStatus.RUNNING;
+        publish(job);
+        try {
+            job.errors = FanOutUtils.joinOrDefault(errors, new ArrayList<>(), "project names");
+            job.file = Files.createTempFile(exportDir, "rule-report-", job.format.extension);
+            try (ReportWriter writer = job.format == ExportFormat.CSV
+                    ? new CsvReportWriter(job.file) : new XlsxReportWriter(job.file, headers)) {
+                writer.writeRow(headers);
+                ruleService.forEachRuleReportPage(payload, sort, sortedColumn, rows -> {
+                    try {
+                        for (Map<String, Object> row : rows) {
+                            List<Object> values = new ArrayList<>(headers.size());
+                            for (Object header : headers) {
+                                values.add(toExportValue(row.get(header)));
+                            }
+                            writer.writeRow(values);
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    job.rowsWritten += rows.size();
+                    jobs.put(job.jobId, job);
+                    publish(job);
+                });
+            }
+            job.status = ExportStatus.COMPLETED;
+            log.info("Export job {} wrote {} rows", job.jobId, job.rowsWritten);
+        } catch (IOException | ParseException | RuntimeException ex) {
+            log.error("Error occurred while running export job {}", job.jobId, ex);
+            job.message = ex instanceof CustomDataException ? ex.getMessage() : "Export failed";
+            job.status = ExportStatus.FAILED;
+            job.deleteFile();
+        }
+        job.completedAt = new Date().getTime();
+        jobs.put(job.jobId, job);
+        publish(job);
+    }
+
+    private void publish(ExportJob job) {
+        try {
+            simpMessagingTemplate.convertAndSendToUser(job.username, EXPORT_DESTINATION, job.toDto());
+        } catch (RuntimeException ex) {
+            log.warn("Could not send progress of export job {}: {}", job.jobId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns what a cell is exported as: its value, a Date for date cells, a comma separated list for
+     * collections and JSON for anything else that is not a scalar, such as chart data.
+     */
+    private Object toExportValue(Object cell) {
+        Object value = cell instanceof Cell ? ((Cell) cell).getValue() : cell;
+        if (value == null || value instanceof String || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Number) {
+            if (cell instanceof Cell && "date".equals(((Cell) cell).getType())) {
+                return new Date(((Number) value).longValue());
+            }
+            return value;
+        }
+        if (value instanceof Collection) {
+            List<String> values = new ArrayList<>();
+            for (Object element : (Collection<?>) value) {
+                values.add(String.valueOf(element));
+            }
+            return String.join(", ", values);
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            return String.valueOf(value);
+        }
+    }
+
+    private interface ReportWriter extends Closeable {
+
+        void writeRow(List<Object> values) throws IOException;
+    }
+
+    private static final class CsvReportWriter implements ReportWriter {
+
+        private final BufferedWriter writer;
+
+        private CsvReportWriter(Path file) throws IOException {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            // Byte order mark, so Excel opens the file as UTF-8.
+            writer.write('\uFEFF');
+        }
+
+        @Override
+        public void writeRow(List<Object> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values.get(i)));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value instanceof Date ? ((Date) value).toInstant().toString() : String.valueOf(value);
+            // Keeps spreadsheet applications from evaluating text cells as formulas.
+            if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0
+                    && !text.equals("-")) {
+                text = "'" + text;
+            }
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                    || text.indexOf('\r') >= 0) {
+                text = "\"" + text.replace("\"", "\"\"") + "\"";
+            }
+            return text;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class XlsxReportWriter implements ReportWriter {
+
+        private final Path file;
+        private final List<Object> headers;
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        private final CellStyle dateStyle;
+        private Sheet sheet;
+        private int rowNum;
+
+        private XlsxReportWriter(Path file, List<Object> headers) {
+            this.file = file;
+            this.headers = headers;
+            workbook.setCompressTempFiles(true);
+            dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+            sheet = workbook.createSheet("Report");
+        }
+
+        @Override
+        public void writeRow(List<Object> values) {
+            if (rowNum == XLSX_MAX_ROWS) {
+                // A sheet is full, continue on the next one under the same headers.
+                sheet = workbook.createSheet("Report " + (workbook.getNumberOfSheets() + 1));
+                rowNum = 0;
+                writeRow(headers);
+            }
+            Row row = sheet.createRow(rowNum++);
+            for (int i = 0; i < values.size(); i++) {
+                Object value = values.get(i);
+                if (value == null) {
+                    continue;
+                }
+                org.apache.poi.ss.usermodel.Cell cell = row.createCell(i);
+                if (value instanceof Number) {
+                    cell.setCellValue(((Number) value).doubleValue());
+                } else if (value instanceof Boolean) {
+                    cell.setCellValue((Boolean) value);
+                } else if (value instanceof Date) {
+                    cell.setCellValue((Date) value);
+                    cell.setCellStyle(dateStyle);
+                } else {
+                    String text = String.valueOf(value);
+                    cell.setCellValue(text.length() > XLSX_MAX_CELL_LENGTH
+                            ? text.substring(0, XLSX_MAX_CELL_LENGTH) : text);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (OutputStream outputStream = Files.newOutputStream(file)) {
+                workbook.write(outputStream);
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+        }
+    }
+
+    private static final class ExportJob {
+
+        private final String jobId = UUID.randomUUID().toString();
+        private final String username;
+        private final long reportid;
+        private final ExportFormat format;
+        private final long createdAt = new Date().getTime();
+        private volatile ExportStatus status = ExportStatus.QUEUED;
+        private volatile long rowsWritten;
+        private volatile List<String> errors;
+        private volatile String message;
+        private volatile Path file;
+        private volatile Long completedAt;
+
+        private ExportJob(String username, long reportid, ExportFormat format) {
+            this.username = username;
+            this.reportid = reportid;
+            this.format = format;
+        }
+
+        private ExportJobDto toDto() {
+            ExportJobDto dto = new ExportJobDto();
+            dto.setJobId(jobId);
+            dto.setReportid(reportid);
+            dto.setFormat(format);
+            dto.setStatus(status);
+            dto.setRowsWritten(rowsWritten);
+            dto.setErrors(errors);
+            dto.setMessage(message);
+            dto.setCreatedAt(createdAt);
+            dto.setCompletedAt(completedAt);
+            return dto;
+        }
+
+        private void deleteFile() {
+            Path current = file;
+            if (current == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(current);
+            } catch (IOException ex) {
+                log.warn("Could not delete export file {}: {}", current, ex.getMessage());
+            }
+        }
+    }
+
+}
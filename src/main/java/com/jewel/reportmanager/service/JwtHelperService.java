@@ -1,18 +1,113 @@
 package com.jewel.reportmanager.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
-import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Verifies bearer tokens. Verified subjects are cached by the SHA-256 digest of the token until the token's exp,
+ * so clients polling with the same token only pay for a hash lookup. Tokens that fail verification are never
+ * cached.
+ */
 @Service
 public class JwtHelperService {
 
     private final String SECRET_KEY = "secret";
 
+    private final JwtParser parser = Jwts.parser().setSigningKey(SECRET_KEY);
+
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtHelperService(@Value("${report.jwt-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${report.jwt-cache.max-ttl-ms:600000}") long maxTtlMs) {
+        long maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMs);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        if (token.expiresAt == null) {
+                            return maxTtlNanos;
+                        }
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(token.expiresAt - System.currentTimeMillis());
+                        return Math.max(0, Math.min(remaining, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody().getSubject();
+        return verify(token).subject;
+    }
+
+    /**
+     * Returns the exp of the token in epoch milliseconds, null when it has none.
+     *
+     * @param token
+     * @return Long
+     */
+    public Long getExpirationFromJwtToken(String token) {
+        return verify(token).expiresAt;
     }
-}
 
+    private VerifiedToken verify(String token) {
+        String key = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified != null && !verified.isExpired()) {
+            return verified;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        verified = new VerifiedToken(claims.getSubject(), expiration != null ? expiration.getTime() : null);
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static final class VerifiedToken {
+
+        private final String subject;
+        private final Long expiresAt;
+
+        private VerifiedToken(String subject, Long expiresAt) {
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return expiresAt != null && expiresAt <= System.currentTimeMillis();
+        }
+    }
+}
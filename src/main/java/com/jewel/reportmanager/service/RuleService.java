@@ -4,32 +4,47 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jewel.reportmanager.dto.*;
 import com.jewel.reportmanager.dto.RuleApi;
+import com.jewel.reportmanager.entity.SuiteHealthMetrics;
 import com.jewel.reportmanager.enums.StatusColor;
 import com.jewel.reportmanager.exception.CustomDataException;
+import com.jewel.reportmanager.utils.FanOutUtils;
 import com.jewel.reportmanager.utils.ReportUtils;
 import com.jewel.reportmanager.utils.RestApiUtils;
+import com.jewel.reportmanager.utils.ServerTiming;
 import com.mongodb.BasicDBObject;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.apache.commons.lang3.StringUtils;
 import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static com.jewel.reportmanager.configuration.MetricsConfig.REPORT_MDC_KEY;
 import static com.jewel.reportmanager.enums.OperationType.*;
 import static com.jewel.reportmanager.enums.StatusColor.*;
 import static com.jewel.reportmanager.enums.UserRole.*;
 import static com.jewel.reportmanager.utils.ReportResponseConstants.NEVER_FIXED;
 import static com.jewel.reportmanager.utils.ReportResponseConstants.*;
+import static com.jewel.reportmanager.utils.ServerTiming.ACL;
+import static com.jewel.reportmanager.utils.ServerTiming.AGGREGATE;
+import static com.jewel.reportmanager.utils.ServerTiming.FETCH;
+import static com.jewel.reportmanager.utils.ServerTiming.RENDER;
 
 @Slf4j
 @Service
@@ -44,6 +59,15 @@ public class RuleService {
     @Autowired
     private JwtHelperService jwtHelper;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SuiteHealthMetricsService suiteHealthMetricsService;
+
+    @Autowired
+    private ActionReportCache actionReportCache;
+
     /**
      * @param payload
      * @param pageNo
@@ -55,6 +79,39 @@ public class RuleService {
     public Response getRuleReport(RuleApi payload, Integer pageNo,
             Integer sort, String sortedColumn) throws ParseException {
 
+        CompletableFuture<List<String>> errors = ServerTiming.time(ACL,
+                () -> checkRuleReportAccess(payload, sort, sortedColumn));
+
+        switch ((int) payload.getReportid()) {
+            case 1:
+                return createSuiteRunReport(payload, pageNo, sort, sortedColumn, errors);
+            case 2:
+                return createSuiteSummaryReport(payload, pageNo, errors);
+            case 3:
+                return createSuiteDiagnoseReport(payload, pageNo, errors);
+            case 4:
+                return createTestCaseRunReport(payload, pageNo, sort, sortedColumn, errors);
+            case 5:
+                return createTestCaseSummaryReport(payload, pageNo, sort, sortedColumn, errors);
+            case 6:
+                return createTestCaseDiagnoseReport(payload, pageNo, sort, sortedColumn, errors);
+            default:
+                log.error("Error occurred due to records not found");
+                throw new CustomDataException(REPORT_ID_NOT_VALID, null, Failure, HttpStatus.OK);
+        }
+
+    }
+
+    /**
+     * Validates the sort parameters and restricts the payload's project ids to the ones the user can access.
+     * Returns the access errors for the projects that were dropped, fetched in the background.
+     *
+     * @param payload
+     * @param sort
+     * @param sortedColumn
+     * @return CompletableFuture<List<String>>
+     */
+    public CompletableFuture<List<String>> checkRuleReportAccess(RuleApi payload, Integer sort, String sortedColumn) {
         if ((sort != null && sortedColumn == null) || (sort == null && sortedColumn != null)) {
             log.error("Both parameters are required sort and sortedColumn !!");
             throw new CustomDataException(BOTH_PARAMETERS_REQUIRED, null, Failure, HttpStatus.OK);
@@ -80,32 +137,214 @@ public class RuleService {
         payload.setProjectid(accessPids);
         allPids.removeAll(accessPids);
 
-        List<String> errors = new ArrayList<>();
+        // Project names are only needed for the access errors, fetch them alongside the report.
+        CompletableFuture<List<String>> errors;
         if (!allPids.isEmpty()) {
-            List<String> projectNames = RestApiUtils.getProjectNames(payload.getProjectid());
-            for (String projectName : projectNames) {
-                errors.add("You don't have access for " + projectName.toUpperCase());
-            }
+            List<Long> projectIds = new ArrayList<>(payload.getProjectid());
+            errors = FanOutUtils.supplyAsync(() -> {
+                List<String> accessErrors = new ArrayList<>();
+                for (String projectName : RestApiUtils.getProjectNames(projectIds)) {
+                    accessErrors.add("You don't have access for " + projectName.toUpperCase());
+                }
+                return accessErrors;
+            });
+        } else {
+            errors = CompletableFuture.completedFuture(new ArrayList<>());
         }
+        return errors;
+    }
 
+    /**
+     * Returns the column headers of a rule report.
+     *
+     * @param reportId
+     * @return List<Object>
+     */
+    public static List<Object> getRuleReportHeaders(long reportId) {
+        List<Object> headers = new ArrayList<>();
+        switch ((int) reportId) {
+            case 1:
+                Collections.addAll(headers, "Project Name", "Report Name", "Environment", "Status", "Executed By",
+                        "Action", "Duration", "Testcase Summary");
+                break;
+            case 2:
+                Collections.addAll(headers, "Project Name", "Report Name", "Environment", "Suite Summary",
+                        "Last 5 Runs", "Stability Index", "Average Fix Time", "App Stability Score",
+                        "Automation Stability Score", "Analysis");
+                break;
+            case 3:
+                Collections.addAll(headers, "Project Name", "Report Name", "Environment", "Last Run Status",
+                        "Failing Since", "Stability Index", "Downtime", "Average Fix Time", "Last Pass",
+                        "Last Status Details", "Analysis");
+                break;
+            case 4:
+                Collections.addAll(headers, "Project Name", "TestCase Name", "Environment", "Status", "Action",
+                        "Product Type", "Duration");
+                break;
+            case 5:
+                Collections.addAll(headers, "Project Name", "TestCase Name", "TestCase Summary", "Broken Index",
+                        "Average Fix Time");
+                break;
+            case 6:
+                Collections.addAll(headers, "Project Name", "TestCase Name", "Environment", "Report Name",
+                        "Last Run Status", "Failing Since", "Broken Index", "Downtime", "Average Fix Time",
+                        "Last Pass");
+                break;
+            default:
+                log.error("Error occurred due to records not found");
+                throw new CustomDataException(REPORT_ID_NOT_VALID, null, Failure, HttpStatus.OK);
+        }
+        return headers;
+    }
+
+    /**
+     * Streams a rule report as newline delimited JSON. The access check runs before the body is returned, so
+     * access and validation failures are still reported with their status code. The first line holds the
+     * headers and access errors, each following line is one row and the last line holds totalElements.
+     *
+     * @param payload
+     * @param sort
+     * @param sortedColumn
+     * @return StreamingResponseBody
+     */
+    public StreamingResponseBody streamRuleReport(RuleApi payload, Integer sort, String sortedColumn) {
+        CompletableFuture<List<String>> errors = checkRuleReportAccess(payload, sort, sortedColumn);
+        List<Object> headers = getRuleReportHeaders(payload.getReportid());
+        String report = MDC.get(REPORT_MDC_KEY);
+
+        return outputStream -> {
+            // The body is written on an async request thread, the metric tags still need the report.
+            try (MDC.MDCCloseable ignored = report != null ? MDC.putCloseable(REPORT_MDC_KEY, report) : null) {
+                writeRuleReport(outputStream, payload, sort, sortedColumn, headers, errors);
+            }
+        };
+    }
+
+    private void writeRuleReport(OutputStream outputStream, RuleApi payload, Integer sort, String sortedColumn,
+            List<Object> headers, CompletableFuture<List<String>> errors) throws IOException {
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("headers", headers);
+        meta.put("errors", FanOutUtils.joinOrDefault(errors, new ArrayList<>(), "project names"));
+        writeNdjsonLine(outputStream, meta);
+        outputStream.flush();
+
+        AtomicLong totalElements = new AtomicLong();
+        try {
+            forEachRuleReportPage(payload, sort, sortedColumn, rows -> {
+                try {
+                    for (Map<String, Object> row : rows) {
+                        writeNdjsonLine(outputStream, row);
+                    }
+                    outputStream.flush();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                totalElements.addAndGet(rows.size());
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } catch (RuntimeException | ParseException ex) {
+            // The headers are already committed, so failures are reported in the body instead of a status code.
+            log.error("Error occurred while streaming rule report: {}", ex.getMessage(), ex);
+            writeNdjsonLine(outputStream, Map.of("error", String.valueOf(ex.getMessage())));
+        }
+        writeNdjsonLine(outputStream, Map.of("totalElements", totalElements.get()));
+        outputStream.flush();
+    }
+
+    /**
+     * Produces the rows of a rule report page by page, so callers can write them out without holding the whole
+     * report. Reports 1 to 4 walk the upstream pages until an empty one comes back and keep the upstream order
+     * across them; the paged JSON report reverses each page on its own, which would interleave concatenated pages.
+     * The test case summary and diagnose reports group across all test exes and are produced in a single pass.
+     *
+     * @param payload
+     * @param sort
+     * @param sortedColumn
+     * @param pageConsumer
+     * @throws ParseException
+     */
+    public void forEachRuleReportPage(RuleApi payload, Integer sort, String sortedColumn,
+            Consumer<List<Map<String, Object>>> pageConsumer) throws ParseException {
         switch ((int) payload.getReportid()) {
             case 1:
-                return createSuiteRunReport(payload, pageNo, sort, sortedColumn, errors);
             case 2:
-                return createSuiteSummaryReport(payload, pageNo, errors);
             case 3:
-                return createSuiteDiagnoseReport(payload, pageNo, errors);
+                long startTime = new SimpleDateFormat("MM/dd/yyyy").parse(payload.getStartTime()).getTime();
+                long endTime = new SimpleDateFormat("MM/dd/yyyy").parse(payload.getEndTime()).getTime()
+                        + (1000 * 60 * 60 * 24);
+                List<String> projects = payload.getProject();
+                projects.replaceAll(String::toLowerCase);
+                List<String> envs = payload.getEnv();
+                envs.replaceAll(String::toLowerCase);
+                List<Long> p_ids = payload.getProjectid();
+                for (int pageNo = 1; ; pageNo++) {
+                    List<Map<String, Object>> rows = new ArrayList<>();
+                    if (payload.getReportid() == 1) {
+                        int page = pageNo;
+                        CompletableFuture<List<TestExeDto>> testExeListFuture = FanOutUtils.supplyAsync(
+                                () -> RestApiUtils.getS_Run_Ids(p_ids, envs, startTime, endTime, page, sort,
+                                        sortedColumn))
+                                .thenCompose(sRunIds -> FanOutUtils.supplyAsync(
+                                        () -> RestApiUtils.getTestExeListForS_run_ids(sRunIds)));
+                        List<SuiteExeDto> suiteReports = RestApiUtils.getSuiteExes(p_ids, envs, startTime, endTime,
+                                pageNo, sort, sortedColumn);
+                        if (suiteReports.isEmpty()) {
+                            return;
+                        }
+                        Map<String, List<TestExeDto>> testExesByS_run_id = ReportUtils.groupByS_run_id(
+                                FanOutUtils.join(testExeListFuture));
+                        for (SuiteExeDto suiteExeDto : suiteReports) {
+                            rows.add(createSuiteExeReport(testExesByS_run_id, suiteExeDto));
+                        }
+                    } else {
+                        List<String> reportNames = RestApiUtils.getReportNames(p_ids, envs, startTime, endTime,
+                                pageNo);
+                        if (reportNames.isEmpty()) {
+                            return;
+                        }
+                        if (payload.getReportid() == 2) {
+                            getReportDetailsToCreateSuiteSummaryReport(reportNames, p_ids, projects, startTime,
+                                    endTime, envs, rows);
+                        } else {
+                            getReportDetailsToCreateSuiteDiagnoseReport(reportNames, p_ids, projects, startTime,
+                                    endTime, envs, rows);
+                        }
+                    }
+                    pageConsumer.accept(rows);
+                }
             case 4:
-                return createTestCaseRunReport(payload, pageNo, sort, sortedColumn, errors);
+                for (int pageNo = 1; ; pageNo++) {
+                    List<BasicDBObject> results = getTestExeResults(payload, pageNo, sort, sortedColumn);
+                    if (results.isEmpty()) {
+                        return;
+                    }
+                    pageConsumer.accept(getDataForTestCaseRunReport(results));
+                }
             case 5:
-                return createTestCaseSummaryReport(payload, pageNo, sort, sortedColumn, errors);
+                pageConsumer.accept(getDataForTestCaseSummaryReport(getTestExeResults(payload, null, sort,
+                        sortedColumn)));
+                return;
             case 6:
-                return createTestCaseDiagnoseReport(payload, pageNo, sort, sortedColumn, errors);
+                pageConsumer.accept(getDataForTestCaseDiagnoseReport(getTestExeResults(payload, null, sort,
+                        sortedColumn)));
+                return;
             default:
                 log.error("Error occurred due to records not found");
                 throw new CustomDataException(REPORT_ID_NOT_VALID, null, Failure, HttpStatus.OK);
         }
+    }
 
+    private List<BasicDBObject> getTestExeResults(RuleApi payload, Integer pageNo, Integer sort,
+            String sortedColumn) {
+        Map<String, Object> resultMap = RestApiUtils.getAllTestExesForTcRunId(payload, pageNo, sort, sortedColumn);
+        List<BasicDBObject> results = (List<BasicDBObject>) resultMap.get("results");
+        return results != null ? results : List.of();
+    }
+
+    private void writeNdjsonLine(OutputStream outputStream, Object value) throws IOException {
+        outputStream.write(objectMapper.writeValueAsBytes(value));
+        outputStream.write('\n');
     }
 
     /**
@@ -121,12 +360,10 @@ public class RuleService {
      */
 
     private Response createSuiteRunReport(RuleApi payload, Integer pageNo,
-            Integer sort, String sortedColumn, List<String> errors) throws ParseException {
+            Integer sort, String sortedColumn, CompletableFuture<List<String>> errors) throws ParseException {
 
         Map<String, Object> result = new HashMap<>();
-        List<Object> headers = new ArrayList<>();
-        Collections.addAll(headers, "Project Name", "Report Name", "Environment", "Status", "Executed By", "Action",
-                "Duration", "Testcase Summary");
+        List<Object> headers = getRuleReportHeaders(1);
         result.put("headers", headers);
         List<Map<String, Object>> data = new ArrayList<>();
         long startTime = new SimpleDateFormat("MM/dd/yyyy").parse(payload.getStartTime()).getTime();
@@ -138,48 +375,60 @@ public class RuleService {
         List<Long> p_ids = payload.getProjectid();
         envs.replaceAll(String::toLowerCase);
 
-        long count = RestApiUtils.getSuiteExeCount(p_ids, envs, startTime, endTime);
-        if (count == 0) {
-            log.error("Error occurred due to records not found");
-            throw new CustomDataException(SUITE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.NOT_FOUND);
-        }
         if (pageNo != null && pageNo <= 0) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(PAGE_NO_CANNOT_BE_NEGATIVE_OR_ZERO, null, Failure, HttpStatus.OK);
         }
 
-        List<SuiteExeDto> suiteReports = RestApiUtils.getSuiteExes(p_ids, envs, startTime, endTime, pageNo, sort,
-                sortedColumn);
+        // The count, the page of suites and the page's test exes do not depend on each other.
+        CompletableFuture<Long> countFuture = FanOutUtils.supplyAsync(
+                () -> RestApiUtils.getSuiteExeCount(p_ids, envs, startTime, endTime));
+        CompletableFuture<List<SuiteExeDto>> suiteReportsFuture = FanOutUtils.supplyAsync(
+                () -> RestApiUtils.getSuiteExes(p_ids, envs, startTime, endTime, pageNo, sort, sortedColumn));
+        CompletableFuture<List<TestExeDto>> testExeListFuture = FanOutUtils.supplyAsync(
+                () -> RestApiUtils.getS_Run_Ids(p_ids, envs, startTime, endTime, pageNo, sort, sortedColumn))
+                .thenCompose(sRunIds -> FanOutUtils.supplyAsync(() -> RestApiUtils.getTestExeListForS_run_ids(sRunIds)));
+
+        long count = ServerTiming.time(FETCH, () -> FanOutUtils.join(countFuture));
+        if (count == 0) {
+            log.error("Error occurred due to records not found");
+            throw new CustomDataException(SUITE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.NOT_FOUND);
+        }
+
+        List<SuiteExeDto> suiteReports = ServerTiming.time(FETCH, () -> FanOutUtils.join(suiteReportsFuture));
         if (suiteReports.isEmpty()) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(PAGE_NUMBER_IS_ABOVE_TOTAL_PAGES, null, Failure, HttpStatus.OK);
         }
-        List<String> sRunIds = RestApiUtils.getS_Run_Ids(p_ids, envs, startTime, endTime, pageNo, sort, sortedColumn);
 
-        List<TestExeDto> testExeDtoList = RestApiUtils.getTestExeListForS_run_ids(sRunIds);
+        List<TestExeDto> testExeDtoList = ServerTiming.time(FETCH, () -> FanOutUtils.join(testExeListFuture));
+        Map<String, List<TestExeDto>> testExesByS_run_id = ServerTiming.time(AGGREGATE,
+                () -> ReportUtils.groupByS_run_id(testExeDtoList));
 
-        for (SuiteExeDto suiteExeDto : suiteReports) {
-            data.add(createSuiteExeReport(testExeDtoList, suiteExeDto));
+        try (ServerTiming.Phase ignored = ServerTiming.open(RENDER)) {
+            for (SuiteExeDto suiteExeDto : suiteReports) {
+                data.add(createSuiteExeReport(testExesByS_run_id, suiteExeDto));
+            }
         }
 
         Collections.reverse(data);
 
         result.put("data", data);
         result.put("totalElements", count);
-        if (!errors.isEmpty()) {
-            result.put("errors", errors);
-        }
+        putAccessErrors(result, errors);
         return new Response(result, count + " Records found", Success);
     }
 
     /**
      * creates suite exe report for list of suite exes.
      *
-     * @param testExeDtoList
+     * @param testExesByS_run_id - test exes of the page grouped by s_run_id
      * @param suiteExeDto
      * @return
      */
-    private Map<String, Object> createSuiteExeReport(List<TestExeDto> testExeDtoList, SuiteExeDto suiteExeDto) {
+    private Map<String, Object> createSuiteExeReport(Map<String, List<TestExeDto>> testExesByS_run_id,
+            SuiteExeDto suiteExeDto) {
+        List<TestExeDto> testExeDtoList = testExesByS_run_id.getOrDefault(suiteExeDto.getS_run_id(), List.of());
         Map<String, Object> temp = new HashMap<>();
         Map<String, Long> statusMap = new HashMap<>();
         Set<String> users = new HashSet<>();
@@ -198,7 +447,7 @@ public class RuleService {
     /**
      * Return test exe status for suite exe.
      *
-     * @param testExeDtoList
+     * @param testExeDtoList - test exes of this suite exe only
      * @param suiteExeDto
      * @param users
      * @param statusMap
@@ -209,34 +458,26 @@ public class RuleService {
         Map<String, Object> temp = new HashMap<>();
         long totalCount = 0L;
         for (TestExeDto testExeDto : testExeDtoList) {
-            if (!testExeDto.getS_run_id().equals(suiteExeDto.getS_run_id())) {
-                continue;
-            }
             if (testExeDto.getInvoke_user() != null) {
                 users.add(testExeDto.getInvoke_user());
             }
-            if (testExeDto.getS_run_id().equals(suiteExeDto.getS_run_id())) {
-                String status = testExeDto.getStatus().toUpperCase();
-                switch (status) {
-                    case "PASS":
-                    case "FAIL":
-                    case "EXE":
-                    case "ERR":
-                    case "INFO":
-                    case "WARN":
-                        long value = statusMap.get(status) + 1;
-                        statusMap.put(status, value);
-                        totalCount++;
-                }
+            String status = testExeDto.getStatus().toUpperCase();
+            switch (status) {
+                case "PASS":
+                case "FAIL":
+                case "EXE":
+                case "ERR":
+                case "INFO":
+                case "WARN":
+                    long value = statusMap.get(status) + 1;
+                    statusMap.put(status, value);
+                    totalCount++;
             }
         }
         if (totalCount > 0) {
-            Map<String, Object> doughnutSubType = new HashMap<>();
-            doughnutSubType.put("subType", "doughnut_chart");
-            doughnutSubType.put("heading", "Total Testcase(s)");
             temp.put("Testcase Summary",
                     ReportUtils.createCustomObject(ReportUtils.createDoughnutChart(statusMap),
-                            "chart", totalCount, "center", doughnutSubType));
+                            "chart", totalCount, "center", Cell.DOUGHNUT_TOTAL_TESTCASES));
         }
         return temp;
     }
@@ -249,11 +490,9 @@ public class RuleService {
      * @param users
      */
     private void createActionReportForSuiteExe(Map<String, Object> temp, SuiteExeDto suiteExeDto, Set<String> users) {
-        Map<String, Object> actionReport = new HashMap<>();
-        actionReport.put("subType", "execution_report");
         temp.put("Action",
                 ReportUtils.createCustomObject(suiteExeDto.getS_run_id(), "action", suiteExeDto.getS_run_id(), "center",
-                        actionReport));
+                        Cell.SUBTYPE_EXECUTION_REPORT));
         temp.put("Report Name",
                 ReportUtils.createCustomObject(suiteExeDto.getReport_name(), "text", suiteExeDto.getReport_name(),
                         "left"));
@@ -280,29 +519,24 @@ public class RuleService {
                 ReportUtils.createCustomObject(suiteExeDto.getStatus(), "status", suiteExeDto.getStatus(), "center"));
 
         if (suiteExeDto.getS_end_time() != 0) {
-            Map<String, Object> subtype = new HashMap<>();
-            subtype.put("subType", "duration");
             Map<String, Object> values = new HashMap<>();
             values.put("start_time", suiteExeDto.getS_start_time());
             values.put("end_time", suiteExeDto.getS_end_time());
             temp.put("Duration",
                     ReportUtils.createCustomObject(values, "date",
                             ((float) (suiteExeDto.getS_end_time() - suiteExeDto.getS_start_time())),
-                            "center", subtype));
+                            "center", Cell.SUBTYPE_DURATION));
         } else {
             temp.put("Duration", ReportUtils.createCustomObject("-", "text", suiteExeDto.getS_end_time(), "center"));
         }
     }
 
-    private Response createSuiteSummaryReport(RuleApi payload, Integer pageNo, List<String> errors)
+    private Response createSuiteSummaryReport(RuleApi payload, Integer pageNo, CompletableFuture<List<String>> errors)
             throws ParseException {
 
         Map<String, Object> result = new HashMap<>();
-        List<Object> headers = new ArrayList<>();
+        List<Object> headers = getRuleReportHeaders(2);
         List<Map<String, Object>> data = new ArrayList<>();
-        Collections.addAll(headers, "Project Name", "Report Name", "Environment", "Suite Summary", "Last 5 Runs",
-                "Stability Index",
-                "Average Fix Time", "App Stability Score", "Automation Stability Score", "Analysis");
         result.put("headers", headers);
 
         long startTime = new SimpleDateFormat("MM/dd/yyyy").parse(payload.getStartTime()).getTime();
@@ -319,7 +553,8 @@ public class RuleService {
             throw new CustomDataException(PAGE_NO_CANNOT_BE_NEGATIVE_OR_ZERO, null, Failure, HttpStatus.OK);
         }
 
-        List<String> reportNames = RestApiUtils.getReportNames(p_ids, envs, startTime, endTime, pageNo);
+        List<String> reportNames = ServerTiming.time(FETCH,
+                () -> RestApiUtils.getReportNames(p_ids, envs, startTime, endTime, pageNo));
         if (reportNames.isEmpty()) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(SUITE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.NOT_FOUND);
@@ -330,9 +565,7 @@ public class RuleService {
 
         result.put("data", data);
         result.put("totalElements", count);
-        if (!errors.isEmpty()) {
-            result.put("errors", errors);
-        }
+        putAccessErrors(result, errors);
 
         return new Response(result, count + " Records found", Success);
     }
@@ -340,9 +573,15 @@ public class RuleService {
     private Long getReportDetailsToCreateSuiteSummaryReport(List<String> reportNames, List<Long> p_ids,
             List<String> projects, long startTime, long endTime, List<String> envs, List<Map<String, Object>> data) {
         long count = 0;
-        for (String reportName : reportNames) {
-            Map<String, List<SuiteExeDto>> suiteMap = ReportUtils.getSuiteNames(reportName, p_ids, projects, startTime,
-                    endTime, envs);
+        List<Map<String, List<SuiteExeDto>>> suiteMaps = getSuiteNamesForReportNames(reportNames, p_ids, projects,
+                startTime, endTime, envs);
+        Map<String, SuiteHealthMetrics> metricsByKey = new HashMap<>();
+        Map<String, List<TestExeDto>> testExesByS_run_id = getSuiteHealthMetrics(suiteMaps, startTime, endTime,
+                suites -> suites.subList(0, Math.min(5, suites.size())), metricsByKey);
+        ServerTiming.enter(RENDER);
+        for (int i = 0; i < reportNames.size(); i++) {
+            String reportName = reportNames.get(i);
+            Map<String, List<SuiteExeDto>> suiteMap = suiteMaps.get(i);
             count = count + suiteMap.size();
             for (Map.Entry<String, List<SuiteExeDto>> entry : suiteMap.entrySet()) {
                 if (entry.getValue().isEmpty()) {
@@ -356,12 +595,95 @@ public class RuleService {
 
                 long totalCount = getStatusMapForAllSuites(getAllSuites, statusMap);
 
-                data.add(getReportDataForSuiteSummaryReport(getAllSuites, reportName, totalCount, statusMap));
+                data.add(getReportDataForSuiteSummaryReport(getAllSuites, reportName, totalCount, statusMap,
+                        testExesByS_run_id, metricsByKey.get(entry.getKey())));
             }
         }
         return count;
     }
 
+    /**
+     * Fetches the suites of every report name concurrently, results keep the order of the report names.
+     *
+     * @param reportNames
+     * @param pIds
+     * @param projects
+     * @param startTime
+     * @param endTime
+     * @param envs
+     * @return List<Map<String, List<SuiteExeDto>>>
+     */
+    private List<Map<String, List<SuiteExeDto>>> getSuiteNamesForReportNames(List<String> reportNames, List<Long> pIds,
+            List<String> projects, long startTime, long endTime, List<String> envs) {
+        List<CompletableFuture<Map<String, List<SuiteExeDto>>>> futures = new ArrayList<>();
+        for (String reportName : reportNames) {
+            futures.add(FanOutUtils.supplyAsync(
+                    () -> ReportUtils.getSuiteNames(reportName, pIds, projects, startTime, endTime, envs)));
+        }
+        return ServerTiming.time(FETCH, () -> FanOutUtils.joinAll(futures));
+    }
+
+    /**
+     * Fills metricsByKey with the health metrics of every suite on the page and returns the test exes the page
+     * needs, loaded in one pass. Suites with current stored metrics only need the test exes of their recent runs,
+     * the others need all of them to recompute the metrics.
+     *
+     * @param suiteMaps
+     * @param startTime
+     * @param endTime
+     * @param recentRuns - runs whose test exes are shown on the report
+     * @param metricsByKey
+     * @return Map<String, List<TestExeDto>>
+     */
+    private Map<String, List<TestExeDto>> getSuiteHealthMetrics(List<Map<String, List<SuiteExeDto>>> suiteMaps,
+            long startTime, long endTime, Function<List<SuiteExeDto>, List<SuiteExeDto>> recentRuns,
+            Map<String, SuiteHealthMetrics> metricsByKey) {
+        Map<String, List<SuiteExeDto>> suitesByKey = new HashMap<>();
+        for (Map<String, List<SuiteExeDto>> suiteMap : suiteMaps) {
+            suiteMap.forEach((key, suites) -> {
+                if (!suites.isEmpty()) {
+                    suitesByKey.put(key, suites);
+                }
+            });
+        }
+        metricsByKey.putAll(ServerTiming.time(FETCH,
+                () -> suiteHealthMetricsService.findCurrent(suitesByKey, startTime, endTime)));
+
+        Map<String, List<SuiteExeDto>> staleSuitesByKey = new HashMap<>();
+        Set<String> sRunIds = new LinkedHashSet<>();
+        for (Map.Entry<String, List<SuiteExeDto>> entry : suitesByKey.entrySet()) {
+            List<SuiteExeDto> suites = entry.getValue();
+            if (!metricsByKey.containsKey(entry.getKey())) {
+                staleSuitesByKey.put(entry.getKey(), suites);
+            } else {
+                suites = recentRuns.apply(suites);
+            }
+            for (SuiteExeDto suite : suites) {
+                sRunIds.add(suite.getS_run_id());
+            }
+        }
+        Map<String, List<TestExeDto>> testExesByS_run_id = ServerTiming.time(FETCH,
+                () -> ReportUtils.getTestExesGroupedByS_run_id(sRunIds));
+        metricsByKey.putAll(ServerTiming.time(AGGREGATE,
+                () -> suiteHealthMetricsService.computeAll(staleSuitesByKey, testExesByS_run_id, startTime, endTime)));
+        return testExesByS_run_id;
+    }
+
+    /**
+     * Adds the access errors to the report once the project names have been fetched, a failed lookup only
+     * drops the errors instead of the whole report.
+     *
+     * @param result
+     * @param errors
+     */
+    private void putAccessErrors(Map<String, Object> result, CompletableFuture<List<String>> errors) {
+        List<String> accessErrors = ServerTiming.time(ACL,
+                () -> FanOutUtils.joinOrDefault(errors, new ArrayList<>(), "project names"));
+        if (!accessErrors.isEmpty()) {
+            result.put("errors", accessErrors);
+        }
+    }
+
     private Long getStatusMapForAllSuites(List<SuiteExeDto> getAllSuites, Map<String, Long> statusMap) {
         long totalCount = 0L;
         for (SuiteExeDto suiteExeDto : getAllSuites) {
@@ -382,18 +704,18 @@ public class RuleService {
     }
 
     private Map<String, Object> getReportDataForSuiteSummaryReport(List<SuiteExeDto> getAllSuites, String reportName,
-            Long totalCount, Map<String, Long> statusMap) {
+            Long totalCount, Map<String, Long> statusMap, Map<String, List<TestExeDto>> testExesByS_run_id,
+            SuiteHealthMetrics metrics) {
         String env = getAllSuites.get(0).getEnv();
-        List<SuiteExeDto> sortedList = ReportUtils.getSortedListForSuiteExe(getAllSuites);
-        double brokenIndex = ReportUtils.brokenIndexForSuiteExe(getAllSuites);
+        double brokenIndex = metrics.getBrokenIndex();
         int stabilityIndex = ReportUtils.stabilityIndex(brokenIndex);
-        long averageFixTime = ReportUtils.averageFixTimeForSuiteExe(getAllSuites);
-        long downTime = ReportUtils.getDownTimeForSuiteExe(sortedList);
-        Map<String, Object> last5SuiteRuns = ReportUtils.last5SuiteRuns(getAllSuites);
-        Map<String, Long> culprit = ReportUtils.culprit(getAllSuites);
-
-        double devScore = ReportUtils.getScore(brokenIndex, downTime, averageFixTime, env, getAllSuites);
-        double qaScore = ReportUtils.getQAScore(getAllSuites);
+        long averageFixTime = metrics.getAverageFixTime();
+        long downTime = metrics.getDownTime(new Date().getTime());
+        double devScore = ReportUtils.getScore(brokenIndex, downTime, averageFixTime, env, metrics.getSuiteCount(),
+                metrics.getFailedSuiteCount(), metrics.getTotalTestCaseCount(), metrics.getFailTestCaseCount());
+        double qaScore = metrics.getQaScore();
+        Map<String, Object> last5SuiteRuns = ReportUtils.last5SuiteRuns(getAllSuites, testExesByS_run_id);
+        Map<String, Long> culprit = metrics.getCulpritMap();
         String averageFixTimeStr;
         if (brokenIndex == 1) {
             averageFixTimeStr = NEVER_FIXED;
@@ -423,12 +745,9 @@ public class RuleService {
         temp.put("Environment",
                 ReportUtils.createCustomObject(StringUtils.capitalize(getAllSuites.get(0).getEnv()), "text",
                         getAllSuites.get(0).getEnv(), "left"));
-        Map<String, Object> doughnutSubType = new HashMap<>();
-        doughnutSubType.put("subType", "doughnut_chart");
-        doughnutSubType.put("heading", "Total Suite(s)");
         temp.put("Suite Summary",
                 ReportUtils.createCustomObject(ReportUtils.createDoughnutChart(statusMap), "chart",
-                        totalCount, "center", doughnutSubType));
+                        totalCount, "center", Cell.DOUGHNUT_TOTAL_SUITES));
         temp.put("Stability Index",
                 ReportUtils.createCustomObject(stabilityIndex + "%", "text", stabilityIndex, "center"));
         temp.put("Average Fix Time",
@@ -451,15 +770,12 @@ public class RuleService {
         return temp;
     }
 
-    private Response createSuiteDiagnoseReport(RuleApi payload, Integer pageNo, List<String> errors)
+    private Response createSuiteDiagnoseReport(RuleApi payload, Integer pageNo, CompletableFuture<List<String>> errors)
             throws ParseException {
 
         Map<String, Object> result = new HashMap<>();
-        List<Object> headers = new ArrayList<>();
+        List<Object> headers = getRuleReportHeaders(3);
         List<Map<String, Object>> data = new ArrayList<>();
-        Collections.addAll(headers, "Project Name", "Report Name", "Environment", "Last Run Status", "Failing Since",
-                "Stability Index", "Downtime", "Average Fix Time", "Last Pass", "Last Status Details",
-                "Analysis");
         result.put("headers", headers);
 
         long startTime = new SimpleDateFormat("MM/dd/yyyy").parse(payload.getStartTime()).getTime();
@@ -477,7 +793,8 @@ public class RuleService {
             throw new CustomDataException(PAGE_NO_CANNOT_BE_NEGATIVE_OR_ZERO, null, Failure, HttpStatus.OK);
         }
 
-        List<String> reportNames = RestApiUtils.getReportNames(p_ids, envs, startTime, endTime, pageNo);
+        List<String> reportNames = ServerTiming.time(FETCH,
+                () -> RestApiUtils.getReportNames(p_ids, envs, startTime, endTime, pageNo));
         if (reportNames.isEmpty()) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(SUITE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.NOT_FOUND);
@@ -487,9 +804,7 @@ public class RuleService {
                 endTime, envs, data);
 
         result.put("data", data);
-        if (!errors.isEmpty()) {
-            result.put("errors", errors);
-        }
+        putAccessErrors(result, errors);
         result.put("totalElements", count);
 
         return new Response(result, count + " Records found", Success);
@@ -498,30 +813,37 @@ public class RuleService {
     private Long getReportDetailsToCreateSuiteDiagnoseReport(List<String> reportNames, List<Long> pIds,
             List<String> projects, long startTime, long endTime, List<String> envs, List<Map<String, Object>> data) {
         long count = 0;
-        for (String reportName : reportNames) {
-            Map<String, List<SuiteExeDto>> suiteMap = ReportUtils.getSuiteNames(reportName, pIds, projects, startTime,
-                    endTime, envs);
+        List<Map<String, List<SuiteExeDto>>> suiteMaps = getSuiteNamesForReportNames(reportNames, pIds, projects,
+                startTime, endTime, envs);
+        Map<String, SuiteHealthMetrics> metricsByKey = new HashMap<>();
+        Map<String, List<TestExeDto>> testExesByS_run_id = getSuiteHealthMetrics(suiteMaps, startTime, endTime,
+                suites -> ReportUtils.getSortedListForSuiteExe(suites).subList(0, 1), metricsByKey);
+        ServerTiming.enter(RENDER);
+        for (int i = 0; i < reportNames.size(); i++) {
+            String reportName = reportNames.get(i);
+            Map<String, List<SuiteExeDto>> suiteMap = suiteMaps.get(i);
             count = count + suiteMap.size();
             for (Map.Entry<String, List<SuiteExeDto>> entry : suiteMap.entrySet()) {
                 if (entry.getValue().isEmpty()) {
                     continue;
                 }
                 List<SuiteExeDto> getAllSuites = entry.getValue();
+                SuiteHealthMetrics metrics = metricsByKey.get(entry.getKey());
                 List<SuiteExeDto> sortedList = ReportUtils.getSortedListForSuiteExe(getAllSuites);
-                double brokenIndex = ReportUtils.brokenIndexForSuiteExe(getAllSuites);
+                double brokenIndex = metrics.getBrokenIndex();
                 int stabilityIndex = ReportUtils.stabilityIndex(brokenIndex);
                 String failingSince = getFailingSinceForSuiteExe(sortedList, brokenIndex);
                 String lastRunStatus = sortedList.get(0).getStatus();
                 Long lastPass = getLastPassForSuiteExe(sortedList);
-                long downTime = ReportUtils.getDownTimeForSuiteExe(sortedList);
-                Map<String, Long> culprit = ReportUtils.culprit(getAllSuites);
+                long downTime = metrics.getDownTime(new Date().getTime());
+                Map<String, Long> culprit = metrics.getCulpritMap();
 
-                Map<String, Long> statusMap = lastStatusDetails(sortedList);
+                Map<String, Long> statusMap = lastStatusDetails(sortedList, testExesByS_run_id);
                 long totalCount = 0;
                 for (Map.Entry<String, Long> entry1 : statusMap.entrySet()) {
                     totalCount = totalCount + entry1.getValue();
                 }
-                long averageFixTime = ReportUtils.averageFixTimeForSuiteExe(getAllSuites);
+                long averageFixTime = metrics.getAverageFixTime();
                 String downTimeStr;
                 String averageFixTimeStr;
                 if (brokenIndex == 1) {
@@ -570,12 +892,9 @@ public class RuleService {
         temp.put("Environment",
                 ReportUtils.createCustomObject(StringUtils.capitalize(getAllSuites.get(0).getEnv()), "text",
                         getAllSuites.get(0).getEnv(), "left"));
-        Map<String, Object> doughnutSubType = new HashMap<>();
-        doughnutSubType.put("heading", "Total Testcase(s)");
-        doughnutSubType.put("subType", "doughnut_chart");
         temp.put("Last Status Details",
                 ReportUtils.createCustomObject(ReportUtils.createDoughnutChart(statusMap), "chart",
-                        totalCount, "center", doughnutSubType));
+                        totalCount, "center", Cell.DOUGHNUT_TOTAL_TESTCASES));
         temp.put("Stability Index",
                 ReportUtils.createCustomObject(stabilityIndex + "%", "text", stabilityIndex, "center"));
         temp.put("Average Fix Time",
@@ -583,10 +902,8 @@ public class RuleService {
         temp.put("Last Run Status",
                 ReportUtils.createCustomObject(lastRunStatus, "status", lastRunStatus, "center"));
         if (lastPass > 0) {
-            Map<String, Object> timereport = new HashMap<>();
-            timereport.put("subType", "datetime");
             temp.put("Last Pass",
-                    ReportUtils.createCustomObject(lastPass, "date", lastPass, "center", timereport));
+                    ReportUtils.createCustomObject(lastPass, "date", lastPass, "center", Cell.SUBTYPE_DATETIME));
         } else {
             temp.put("Last Pass", ReportUtils.createCustomObject("-", "text", "-", "center"));
         }
@@ -598,9 +915,10 @@ public class RuleService {
         return temp;
     }
 
-    private Map<String, Long> lastStatusDetails(List<SuiteExeDto> suites) {
+    private Map<String, Long> lastStatusDetails(List<SuiteExeDto> suites,
+            Map<String, List<TestExeDto>> testExesByS_run_id) {
         String sRunId = suites.get(0).getS_run_id();
-        List<TestExeDto> testcaseDetails = RestApiUtils.getTestExeList(sRunId);
+        List<TestExeDto> testcaseDetails = testExesByS_run_id.getOrDefault(sRunId, List.of());
         Map<String, Long> statusMap = new HashMap<>();
         for (StatusColor statusColor : StatusColor.values()) {
             statusMap.put(statusColor.toString(), 0L);
@@ -651,31 +969,26 @@ public class RuleService {
     }
 
     private Response createTestCaseRunReport(RuleApi payload, Integer pageNo, Integer sort,
-            String sortedColumn, List<String> errors) {
+            String sortedColumn, CompletableFuture<List<String>> errors) {
         Map<String, Object> result = new HashMap<>();
-        List<Object> headers = new ArrayList<>();
-        Collections.addAll(headers, "Project Name", "TestCase Name", "Environment", "Status", "Action",
-                "Product Type",
-                "Duration");
+        List<Object> headers = getRuleReportHeaders(4);
         result.put("headers", headers);
         if (pageNo != null && pageNo <= 0) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(PAGE_NO_CANNOT_BE_NEGATIVE_OR_ZERO, null, Failure, HttpStatus.OK);
         }
-        Map<String, Object> resultMap = RestApiUtils.getAllTestExesForTcRunId(payload, pageNo, sort,
-                sortedColumn);
+        Map<String, Object> resultMap = ServerTiming.time(FETCH,
+                () -> RestApiUtils.getAllTestExesForTcRunId(payload, pageNo, sort, sortedColumn));
         long count = (long) resultMap.get("count");
         List<BasicDBObject> results = (List<BasicDBObject>) resultMap.get("results");
         if (count == 0) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(SUITE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.NOT_FOUND);
         }
-        List<Map<String, Object>> data = getDataForTestCaseRunReport(results);
+        List<Map<String, Object>> data = ServerTiming.time(RENDER, () -> getDataForTestCaseRunReport(results));
         Collections.reverse(data);
         result.put("data", data);
-        if (!errors.isEmpty()) {
-            result.put("errors", errors);
-        }
+        putAccessErrors(result, errors);
         result.put("totalElements", count);
         return new Response(result, count + " Records found", Success);
     }
@@ -686,11 +999,9 @@ public class RuleService {
             List<Document> suiteExeList = (List<Document>) testExe.get("result");
             Document suiteExe = suiteExeList.get(0);
             Map<String, Object> temp = new HashMap<>();
-            Map<String, Object> actionReport = new HashMap<>();
-            actionReport.put("subType", "teststep_report");
             temp.put("Action",
                     ReportUtils.createCustomObject(testExe.get("tc_run_id"), "action", testExe.get("tc_run_id"),
-                            "center", actionReport));
+                            "center", Cell.SUBTYPE_TESTSTEP_REPORT));
             temp.put("TestCase Name",
                     ReportUtils.createCustomObject(testExe.get("name"), "text", testExe.get("name"), "left"));
             temp.put("P ID",
@@ -714,15 +1025,13 @@ public class RuleService {
                             suiteExe.get("p_id"), "left"));
 
             if (((long) testExe.get("end_time")) != 0) {
-                Map<String, Object> subtype = new HashMap<>();
-                subtype.put("subType", "duration");
                 Map<String, Object> values = new HashMap<>();
                 values.put("start_time", (testExe.get("start_time")));
                 values.put("end_time", (testExe.get("end_time")));
                 temp.put("Duration",
                         ReportUtils.createCustomObject(values, "date",
                                 ((float) (((long) testExe.get("end_time")) - ((long) testExe.get("start_time")))),
-                                "center", subtype));
+                                "center", Cell.SUBTYPE_DURATION));
                 temp.put("End Time",
                         ReportUtils.createCustomObject(((long) testExe.get("end_time")), "date",
                                 (testExe.get("end_time")), "center"));
@@ -736,26 +1045,35 @@ public class RuleService {
     }
 
     private Response createTestCaseSummaryReport(RuleApi payload, Integer pageNo, Integer sort,
-            String sortedColumn, Object errors) {
+            String sortedColumn, CompletableFuture<List<String>> errors) {
         Map<String, Object> result = new HashMap<>();
 
-        List<Object> headers = new ArrayList<>();
-        List<Map<String, Object>> data = new ArrayList<>();
-        Collections.addAll(headers, "Project Name", "TestCase Name", "TestCase Summary",
-                "Broken Index", "Average Fix Time");
+        List<Object> headers = getRuleReportHeaders(5);
         result.put("headers", headers);
         if (pageNo != null && pageNo <= 0) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(PAGE_NO_CANNOT_BE_NEGATIVE_OR_ZERO, null, Failure, HttpStatus.OK);
         }
-        Map<String, Object> resultMap = RestApiUtils.getAllTestExesForTcRunId(payload, pageNo, sort,
-                sortedColumn);
+        Map<String, Object> resultMap = ServerTiming.time(FETCH,
+                () -> RestApiUtils.getAllTestExesForTcRunId(payload, pageNo, sort, sortedColumn));
         long count = (long) resultMap.get("count");
         List<BasicDBObject> results = (List<BasicDBObject>) resultMap.get("results");
         if (count == 0) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(SUITE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.NOT_FOUND);
         }
+        List<Map<String, Object>> data = ServerTiming.time(AGGREGATE, () -> getDataForTestCaseSummaryReport(results));
+
+        result.put("data", data);
+        result.put("errors", ServerTiming.time(ACL,
+                () -> FanOutUtils.joinOrDefault(errors, new ArrayList<>(), "project names")));
+        result.put("totalElements", data.size());
+
+        return new Response(result, data.size() + " Records found", Success);
+    }
+
+    private List<Map<String, Object>> getDataForTestCaseSummaryReport(List<BasicDBObject> results) {
+        List<Map<String, Object>> data = new ArrayList<>();
         Map<String, List<TestExeCommonDto>> listMap = new HashMap<>();
         for (BasicDBObject testExeDto : results) {
             List<Document> suiteExeList = (List<Document>) testExeDto.get("result");
@@ -832,12 +1150,9 @@ public class RuleService {
                     ReportUtils.createCustomObject(testExeCommonDtoSummeryList.get(0).getName(), "text",
                             testExeCommonDtoSummeryList.get(0).getName(), "left"));
 
-            Map<String, Object> doughnutSubType = new HashMap<>();
-            doughnutSubType.put("subType", "doughnut_chart");
-            doughnutSubType.put("heading", "Total Testcase(s)");
             temp.put("TestCase Summary",
                     ReportUtils.createCustomObject(ReportUtils.createDoughnutChart(statusCount),
-                            "chart", totalCount, "center", doughnutSubType));
+                            "chart", totalCount, "center", Cell.DOUGHNUT_TOTAL_TESTCASES));
 
             temp.put("Broken Index", ReportUtils.createCustomObject(brokenIndex, "text", brokenIndex, "center"));
             temp.put("Average Fix Time",
@@ -847,37 +1162,39 @@ public class RuleService {
                             testExeCommonDtoSummeryList.get(0).getP_id(), "left"));
             data.add(temp);
         }
-
-        result.put("data", data);
-        if (errors != null) {
-            result.put("errors", errors);
-        }
-        result.put("totalElements", listMap.size());
-
-        return new Response(result, listMap.size() + " Records found", Success);
+        return data;
     }
 
     private Response createTestCaseDiagnoseReport(RuleApi payload, Integer pageNo, Integer sort,
-            String sortedColumn, Object errors) {
+            String sortedColumn, CompletableFuture<List<String>> errors) {
 
         Map<String, Object> result = new HashMap<>();
-        List<Object> headers = new ArrayList<>();
-        List<Map<String, Object>> data = new ArrayList<>();
-        Collections.addAll(headers, "Project Name", "TestCase Name", "Environment", "Report Name", "Last Run Status",
-                "Failing Since", "Broken Index", "Downtime", "Average Fix Time", "Last Pass");
+        List<Object> headers = getRuleReportHeaders(6);
         result.put("headers", headers);
         if (pageNo != null && pageNo <= 0) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(PAGE_NO_CANNOT_BE_NEGATIVE_OR_ZERO, null, Failure, HttpStatus.OK);
         }
-        Map<String, Object> resultMap = RestApiUtils.getAllTestExesForTcRunId(payload, pageNo, sort,
-                sortedColumn);
+        Map<String, Object> resultMap = ServerTiming.time(FETCH,
+                () -> RestApiUtils.getAllTestExesForTcRunId(payload, pageNo, sort, sortedColumn));
         long count = (long) resultMap.get("count");
         List<BasicDBObject> results = (List<BasicDBObject>) resultMap.get("results");
         if (count == 0) {
             log.error("Error occurred due to records not found");
             throw new CustomDataException(SUITE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.NOT_FOUND);
         }
+        List<Map<String, Object>> data = ServerTiming.time(AGGREGATE, () -> getDataForTestCaseDiagnoseReport(results));
+
+        result.put("data", data);
+        result.put("errors", ServerTiming.time(ACL,
+                () -> FanOutUtils.joinOrDefault(errors, new ArrayList<>(), "project names")));
+        result.put("totalElements", data.size());
+
+        return new Response(result, data.size() + " Records found", Success);
+    }
+
+    private List<Map<String, Object>> getDataForTestCaseDiagnoseReport(List<BasicDBObject> results) {
+        List<Map<String, Object>> data = new ArrayList<>();
         Map<String, List<TestExeCommonDto>> listMap = new HashMap<>();
         for (BasicDBObject testExeDto : results) {
             List<Document> ob = (List<Document>) testExeDto.get("result");
@@ -938,10 +1255,8 @@ public class RuleService {
                     ReportUtils.createCustomObject(testExeCommonDtoDiagnoseList.get(0).getP_id(), "text",
                             testExeCommonDtoDiagnoseList.get(0).getP_id(), "left"));
             if (lastPass > 0) {
-                Map<String, Object> timereport = new HashMap<>();
-                timereport.put("subType", "datetime");
                 temp.put("Last Pass",
-                        ReportUtils.createCustomObject(lastPass, "date", lastPass, "center", timereport));
+                        ReportUtils.createCustomObject(lastPass, "date", lastPass, "center", Cell.SUBTYPE_DATETIME));
             } else {
                 temp.put("Last Pass", ReportUtils.createCustomObject("-", "text", "-", "center"));
             }
@@ -949,17 +1264,11 @@ public class RuleService {
             temp.put("Downtime", ReportUtils.createCustomObject(downTime, "text", downTime, "center"));
             data.add(temp);
         }
-
-        result.put("data", data);
-        if (errors != null) {
-            result.put("errors", errors);
-        }
-        result.put("totalElements", listMap.size());
-
-        return new Response(result, listMap.size() + " Records found", Success);
+        return data;
     }
 
-    public Response getRuleActionReportV3(String s_run_id, String tc_run_id, Integer pageNo, Integer sort,
+    public ActionReportCache.RenderedReport getRuleActionReportV3(String s_run_id, String tc_run_id, Integer pageNo,
+            Integer sort,
             String sortedColumn) {
         if (tc_run_id == null) {
 
@@ -978,15 +1287,15 @@ public class RuleService {
                 throw new CustomDataException(PAGE_NO_CANNOT_BE_NEGATIVE_OR_ZERO, null, Failure, HttpStatus.OK);
             }
 
-            SuiteExeDto getSuite = RestApiUtils.getSuiteExe(s_run_id);
+            SuiteExeDto getSuite = ServerTiming.time(FETCH, () -> RestApiUtils.getSuiteExe(s_run_id));
 
             if (getSuite == null) {
                 log.error("Error occurred due to records not found");
                 throw new CustomDataException(SUITE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.NOT_FOUND);
             }
 
-            List<VarianceClassificationDto> varianceClassificationList = RestApiUtils
-                    .getVarianceClassificationList(getSuite.getVarianceIds(), ACTIVE_STATUS);
+            List<VarianceClassificationDto> varianceClassificationList = ServerTiming.time(FETCH,
+                    () -> RestApiUtils.getVarianceClassificationList(getSuite.getVarianceIds(), ACTIVE_STATUS));
             Map<Long, VarianceClassificationDto> varianceList = new HashMap<>();
             List<Long> varianceIds = new ArrayList<>();
             for (VarianceClassificationDto varianceClassification : varianceClassificationList) {
@@ -994,16 +1303,20 @@ public class RuleService {
                 varianceList.put(varianceClassification.getVarianceId(), varianceClassification);
             }
 
-            UserDto user1 = ReportUtils.getUserDtoFromServetRequest();
-
-            ProjectDto project = RestApiUtils.getProjectByPidAndStatus(getSuite.getP_id(), ACTIVE_STATUS);
-            if (project == null) {
-                log.error("Error occurred due to records not found");
-                throw new CustomDataException(PROJECT_NOT_EXISTS, null, Failure, HttpStatus.NOT_ACCEPTABLE);
-            }
-            if (!ReportUtils.validateRoleWithViewerAccess(user1, project)) {
-                log.error("Error occurred due to records not found");
-                throw new CustomDataException(USER_NOT_ACCESS_TO_PROJECT, null, Failure, HttpStatus.NOT_ACCEPTABLE);
+            UserDto user1;
+            ProjectDto project;
+            try (ServerTiming.Phase ignored = ServerTiming.open(ACL)) {
+                user1 = ReportUtils.getUserDtoFromServetRequest();
+                project = RestApiUtils.getProjectByPidAndStatus(getSuite.getP_id(), ACTIVE_STATUS);
+                if (project == null) {
+                    log.error("Error occurred due to records not found");
+                    throw new CustomDataException(PROJECT_NOT_EXISTS, null, Failure, HttpStatus.NOT_ACCEPTABLE);
+                }
+                if (!ReportUtils.validateRoleWithViewerAccess(user1, project)) {
+                    log.error("Error occurred due to records not found");
+                    throw new CustomDataException(USER_NOT_ACCESS_TO_PROJECT, null, Failure,
+                            HttpStatus.NOT_ACCEPTABLE);
+                }
             }
 
             Map<String, Object> result = new HashMap<>();
@@ -1032,8 +1345,10 @@ public class RuleService {
                 testcaseLegend.add(initialTestcaseInfo);
                 data.put("legend", testcaseLegend);
 
-                List<TestExeDto> tempTest = RestApiUtils.fetchTestExes(s_run_id, sort, sortedColumn);
+                List<TestExeDto> tempTest = ServerTiming.time(FETCH,
+                        () -> RestApiUtils.fetchTestExes(s_run_id, sort, sortedColumn));
                 if (!tempTest.isEmpty()) {
+                    ServerTiming.enter(RENDER);
                     reportUtils.populateResultWithTestExes(
                             tempTest,
                             varianceList,
@@ -1084,23 +1399,29 @@ public class RuleService {
                     result.put("TestCase_Details", null);
                 }
 
-                return new Response(result, EXE_REPORT_SUCCESSFULLY_FETCHED, Success);
+                return ActionReportCache.RenderedReport.uncached(
+                        new Response(result, EXE_REPORT_SUCCESSFULLY_FETCHED, Success));
             } else {
-                return reportUtils.populateResultWithoutTestExes(
-                        getSuite,
-                        result,
-                        pageNo,
-                        s_run_id,
-                        sort,
-                        sortedColumn,
-                        varianceList,
-                        varianceIds,
-                        project,
-                        user1.getUsername());
+                String key = pageNo + ":" + sort + ":" + sortedColumn + ":" + user1.getUsername() + ":"
+                        + actionReportCache.getVersion(getSuite, varianceList);
+                return actionReportCache.get(s_run_id, key, () -> {
+                    ServerTiming.enter(RENDER);
+                    return reportUtils.populateResultWithoutTestExes(
+                            getSuite,
+                            result,
+                            pageNo,
+                            s_run_id,
+                            sort,
+                            sortedColumn,
+                            varianceList,
+                            varianceIds,
+                            project,
+                            user1.getUsername());
+                });
             }
 
         } else {
-            return reportUtils.getResultWithTcRunId(tc_run_id);
+            return ActionReportCache.RenderedReport.uncached(reportUtils.getResultWithTcRunId(tc_run_id));
         }
     }
 
@@ -1150,6 +1471,7 @@ public class RuleService {
                         Failure, HttpStatus.BAD_REQUEST);
             }
             RestApiUtils.updateSuiteExe(s_run_id, suiteExeDto);
+            actionReportCache.invalidate(s_run_id);
             Map<String, Object> messageMap = Map.of(s_run_id, "Updated");
             simpMessagingTemplate.convertAndSendToUser(String.valueOf(project.getPid()), "/private", messageMap);
 
@@ -1258,103 +1580,114 @@ public class RuleService {
             result.put("s_id", suiteData.getS_id());
         }
 
-        List<Map<String, Object>> output = suiteReports.parallelStream().map(suiteExeDto -> {
-                    HashMap<String, Object> temp = new HashMap<>();
-                    Map<String, Object> timeMap = new HashMap<>();
-                    timeMap.put("subType", "datetime");
-                    temp.put("Start Time", ReportUtils.createCustomObject(suiteExeDto.getS_start_time(), "date",
-                            suiteExeDto.getS_start_time(), "left", timeMap));
-                    temp.put("Status", ReportUtils.createCustomObject(suiteExeDto.getStatus(), "status",
-                            suiteExeDto.getStatus(), "left"));
-                    HashMap<String, Object> actionMap = new HashMap<>();
-                    actionMap.put("subType", "execution_report");
-                    temp.put("Action", ReportUtils.createCustomObject(suiteExeDto.getS_run_id(), "action",
-                            suiteExeDto.getS_run_id(), "center", actionMap));
-
-                    Set<String> baseUserSet = ConcurrentHashMap.newKeySet();
-                    Set<String> tokenUserSet = ConcurrentHashMap.newKeySet();
-                    Set<String> runTypeSet = ConcurrentHashMap.newKeySet();
-                    Set<String> runModeSet = ConcurrentHashMap.newKeySet();
-                    Map<String, Object> statusMap = new ConcurrentHashMap<>();
-
-                    for (StatusColor statusColor : StatusColor.values()) {
-                        statusMap.put(statusColor.toString(), 0L);
-                    }
-                    if (!testcaseDetails.isEmpty()) {
-                        AtomicLong totalCount = new AtomicLong(0L);
-                        testcaseDetails.parallelStream()
-                                .filter(testExeDto -> testExeDto.getS_run_id().equals(suiteExeDto.getS_run_id()))
-                                .forEach(testExeDto -> {
-                                    switch (testExeDto.getStatus().toUpperCase()) {
-                                        case "PASS":
-                                            statusMap.put(PASS.toString(), Long.parseLong(statusMap.get(PASS.toString()).toString()) + 1);
-                                            totalCount.getAndIncrement();
-                                            break;
-                                        case "FAIL": ;
-                                            statusMap.put(FAIL.toString(), Long.parseLong(statusMap.get(FAIL.toString()).toString()) + 1);
-                                            totalCount.getAndIncrement();
-                                            break;
-                                        case "EXE":
-                                            statusMap.put(EXE.toString(), Long.parseLong(statusMap.get(EXE.toString()).toString()) + 1);
-                                            totalCount.getAndIncrement();
-                                            break;
-                                        case "ERR":
-                                            statusMap.put(ERR.toString(), Long.parseLong(statusMap.get(ERR.toString()).toString()) + 1);
-                                            totalCount.getAndIncrement();
-                                            break;
-                                        case "INFO":
-                                            statusMap.put(INFO.toString(), Long.parseLong(statusMap.get(INFO.toString()).toString()) + 1);
-                                            totalCount.getAndIncrement();
-                                            break;
-                                        case "WARN":
-                                            statusMap.put(WARN.toString(), Long.parseLong(statusMap.get(WARN.toString()).toString()) + 1);
-                                            totalCount.getAndIncrement();
-                                            break;
-                                    }
-                                    if (testExeDto.getBase_user() != null) {
-                                        baseUserSet.add(testExeDto.getBase_user());
-                                    }
-                                    if (testExeDto.getToken_user() != null){
-                                        tokenUserSet.addAll(testExeDto.getToken_user());
-                                    }
-                                    runTypeSet.add(testExeDto.getRun_type());
-                                    runModeSet.add(testExeDto.getRun_mode());
-                                });
-
-
-                        if ((search != null && !(search.equals("") || search.equalsIgnoreCase("null"))
-                                && !verifySearch(search, tokenUserSet))) {
-                            return null;
-                        }
-                        HashMap<String, Object> statusSubType = new HashMap<>();
-                        statusSubType.put("subType", "timeline_tc");
-                        statusMap.put("TOTAL", totalCount.get());
-                        if (suiteExeDto.getStatus().equalsIgnoreCase("EXE")
-                                && totalCount.get() != suiteExeDto.getExpected_testcases()) {
-                            statusMap.put("EXE", suiteExeDto.getExpected_testcases() - totalCount.get());
-                        }
-                        if (suiteExeDto.getStatus().equalsIgnoreCase("ERR")
-                                && totalCount.get() != suiteExeDto.getExpected_testcases()) {
-                            statusMap.put("ERR", Long.parseLong(statusMap.get(ERR.toString()).toString())
-                                    + Math.abs(suiteExeDto.getExpected_testcases() - totalCount.get()));
-                        }
-                        temp.put("Testcases",
-                                ReportUtils.createCustomObject(statusMap, "crud", statusMap, "left", statusSubType));
-
-                    }
-                    temp.put("Token User", ReportUtils.createCustomObject(tokenUserSet, "text", tokenUserSet, "left"));
-                    temp.put("Base User", ReportUtils.createCustomObject(baseUserSet, "text", baseUserSet, "left"));
-                    temp.put("Run Type", ReportUtils.createCustomObject(runTypeSet, "text", runTypeSet, "left"));
-                    temp.put("Run Mode", ReportUtils.createCustomObject(runModeSet, "text", runModeSet, "left"));
-                    return temp;
-                }).filter(map -> map != null)
-                .sorted(Comparator.comparing(map -> (long)((Map<String, Object>)map.get("Start Time")).get("value"), Comparator.reverseOrder())) // Sort by nested "Start Time" value
+        Map<String, List<TestExeDto>> testExesByS_run_id = ReportUtils.groupByS_run_id(testcaseDetails);
+        boolean hasTestExes = !testcaseDetails.isEmpty();
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(suiteReports.size());
+        for (SuiteExeDto suiteExeDto : suiteReports) {
+            List<TestExeDto> testExes = testExesByS_run_id.getOrDefault(suiteExeDto.getS_run_id(), List.of());
+            futures.add(FanOutUtils.supplyAsync(() -> getSuiteTimelineRow(suiteExeDto, testExes, hasTestExes, search)));
+        }
+        List<Map<String, Object>> output = FanOutUtils.joinAll(futures).stream()
+                .filter(map -> map != null)
+                .sorted(Comparator.comparing(map -> (long) ((Map<String, Object>) map.get("Start Time")).get("value"),
+                        Comparator.reverseOrder())) // Sort by nested "Start Time" value
                 .collect(Collectors.toList());
 
         result.put("data", output);
         return new Response(result, output.size() + " record(s) fetched successfully", Success);
     }
 
+    /**
+     * Creates one suite timeline row from the test exes of that run. Statuses are counted in an array indexed by
+     * {@link StatusColor} ordinal. Returns null when the search does not match any token user of the run.
+     *
+     * @param suiteExeDto
+     * @param testExes - test exes of this run only
+     * @param hasTestExes - whether any run on the page has test exes
+     * @param search
+     * @return Map<String, Object>
+     */
+    private Map<String, Object> getSuiteTimelineRow(SuiteExeDto suiteExeDto, List<TestExeDto> testExes,
+                                                    boolean hasTestExes, String search) {
+        HashMap<String, Object> temp = new HashMap<>();
+        temp.put("Start Time", ReportUtils.createCustomObject(suiteExeDto.getS_start_time(), "date",
+                suiteExeDto.getS_start_time(), "left", Cell.SUBTYPE_DATETIME));
+        temp.put("Status", ReportUtils.createCustomObject(suiteExeDto.getStatus(), "status",
+                suiteExeDto.getStatus(), "left"));
+        temp.put("Action", ReportUtils.createCustomObject(suiteExeDto.getS_run_id(), "action",
+                suiteExeDto.getS_run_id(), "center", Cell.SUBTYPE_EXECUTION_REPORT));
+
+        Set<String> baseUserSet = new HashSet<>();
+        Set<String> tokenUserSet = new HashSet<>();
+        Set<String> runTypeSet = new HashSet<>();
+        Set<String> runModeSet = new HashSet<>();
+        if (hasTestExes) {
+            long[] counts = new long[StatusColor.values().length];
+            long totalCount = 0L;
+            for (TestExeDto testExeDto : testExes) {
+                switch (testExeDto.getStatus().toUpperCase()) {
+                    case "PASS":
+                        counts[PASS.ordinal()]++;
+                        totalCount++;
+                        break;
+                    case "FAIL":
+                        counts[FAIL.ordinal()]++;
+                        totalCount++;
+                        break;
+                    case "EXE":
+                        counts[EXE.ordinal()]++;
+                        totalCount++;
+                        break;
+                    case "ERR":
+                        counts[ERR.ordinal()]++;
+                        totalCount++;
+                        break;
+                    case "INFO":
+                        counts[INFO.ordinal()]++;
+                        totalCount++;
+                        break;
+                    case "WARN":
+                        counts[WARN.ordinal()]++;
+                        totalCount++;
+                        break;
+                }
+                if (testExeDto.getBase_user() != null) {
+                    baseUserSet.add(testExeDto.getBase_user());
+                }
+                if (testExeDto.getToken_user() != null) {
+                    tokenUserSet.addAll(testExeDto.getToken_user());
+                }
+                runTypeSet.add(testExeDto.getRun_type());
+                runModeSet.add(testExeDto.getRun_mode());
+            }
+
+            if ((search != null && !(search.equals("") || search.equalsIgnoreCase("null"))
+                    && !verifySearch(search, tokenUserSet))) {
+                return null;
+            }
+            counts[TOTAL.ordinal()] = totalCount;
+            if (suiteExeDto.getStatus().equalsIgnoreCase("EXE")
+                    && totalCount != suiteExeDto.getExpected_testcases()) {
+                counts[EXE.ordinal()] = suiteExeDto.getExpected_testcases() - totalCount;
+            }
+            if (suiteExeDto.getStatus().equalsIgnoreCase("ERR")
+                    && totalCount != suiteExeDto.getExpected_testcases()) {
+                counts[ERR.ordinal()] += Math.abs(suiteExeDto.getExpected_testcases() - totalCount);
+            }
+            Map<String, Object> statusMap = new HashMap<>();
+            for (StatusColor statusColor : StatusColor.values()) {
+                statusMap.put(statusColor.toString(), counts[statusColor.ordinal()]);
+            }
+            temp.put("Testcases",
+                    ReportUtils.createCustomObject(statusMap, "crud", statusMap, "left", Cell.SUBTYPE_TIMELINE_TC));
+        }
+        temp.put("Token User", ReportUtils.createCustomObject(tokenUserSet, "text", tokenUserSet, "left"));
+        temp.put("Base User", ReportUtils.createCustomObject(baseUserSet, "text", baseUserSet, "left"));
+        temp.put("Run Type", ReportUtils.createCustomObject(runTypeSet, "text", runTypeSet, "left"));
+        temp.put("Run Mode", ReportUtils.createCustomObject(runModeSet, "text", runModeSet, "left"));
+        return temp;
+    }
+
     private boolean verifySearch(String search, Set<String> tokenUserSet) {
         for (String name : tokenUserSet) {
             if (name.contains(search)) {
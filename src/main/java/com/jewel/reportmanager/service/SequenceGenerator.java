@@ -2,6 +2,7 @@ package com.jewel.reportmanager.service;
 
 import com.jewel.reportmanager.entity.DatabaseSequence;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -9,23 +10,64 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Hands out ids from blocks of sequence.block.size reserved with a single $inc on the sequence document. The $inc
+ * is atomic, so every replica (and any other service incrementing the same sequence by one) gets a disjoint range;
+ * ids stay unique but are no longer contiguous, and the unused rest of a block is skipped on restart.
+ */
 @Service
 public class SequenceGenerator {
     @Autowired
     MongoOperations mongoOperations;
 
+    @Value("${sequence.block.size:100}")
+    private int blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
     public long generateSequence(String seqName) {
+        while (true) {
+            Block block = blocks.get(seqName);
+            if (block != null) {
+                long id = block.next.getAndIncrement();
+                if (id <= block.last) {
+                    return id;
+                }
+            }
+            blocks.compute(seqName, (name, current) -> current != null && current.hasNext() ? current : reserveBlock(name));
+        }
+    }
 
+    private Block reserveBlock(String seqName) {
         Query query = new Query();
         query.addCriteria(Criteria.where("_id").is(seqName));
         Update updation = new Update();
-        updation.inc("seq", 1);
+        updation.inc("seq", blockSize);
 
         DatabaseSequence counter = mongoOperations.findAndModify(query, updation,
                 new FindAndModifyOptions().returnNew(true).upsert(true), DatabaseSequence.class);
-        return !Objects.isNull(counter) ? counter.getSeq() : 1;
+        long last = !Objects.isNull(counter) ? counter.getSeq() : blockSize;
+        return new Block(last - blockSize + 1, last);
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        private boolean hasNext() {
+            return next.get() <= last;
+        }
     }
 
 }
@@ -0,0 +1,289 @@
+package com.jewel.reportmanager.service;
+
+import com.jewel.reportmanager.dto.SuiteExeDto;
+import com.jewel.reportmanager.dto.TestExeDto;
+import com.jewel.reportmanager.entity.SuiteHealthMetrics;
+import com.jewel.reportmanager.utils.FanOutUtils;
+import com.jewel.reportmanager.utils.ReportUtils;
+import com.jewel.reportmanager.utils.RestApiUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.jewel.reportmanager.utils.ReportResponseConstants.TEST_EXE_COLLECTION;
+
+/**
+ * Keeps the suite health metrics of the suite summary and diagnose reports in Mongo, one document per suite and
+ * report window. Metrics are recomputed from the raw suite history only when the suite runs behind them, or the
+ * classifications and variances of their test exes, changed or the stored document is older than
+ * report.suite-health.max-age-ms. This is a read-through store, not an incrementally maintained one: checking a
+ * stored document still needs every suite run of the window and one query for the classified test exes of those
+ * runs, so reads stay O(history). What a current document saves is the recomputation, the test exe fetches and
+ * the upstream test case counts.
+ */
+@Slf4j
+@Service
+public class SuiteHealthMetricsService {
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Value("${report.suite-health.max-age-ms:3600000}")
+    private long maxAgeMs;
+
+    /**
+     * Returns the stored metrics that still describe the given suites of the report window, keyed like the input.
+     *
+     * @param suitesByKey - suites per project:report_name:env
+     * @param startTime
+     * @param endTime
+     * @return Map<String, SuiteHealthMetrics>
+     */
+    public Map<String, SuiteHealthMetrics> findCurrent(Map<String, List<SuiteExeDto>> suitesByKey, long startTime,
+                                                       long endTime) {
+        Map<String, SuiteHealthMetrics> current = new HashMap<>();
+        if (suitesByKey.isEmpty()) {
+            return current;
+        }
+        List<String> ids = new ArrayList<>();
+        for (String key : suitesByKey.keySet()) {
+            ids.add(SuiteHealthMetrics.id(key, startTime, endTime));
+        }
+        List<SuiteHealthMetrics> stored;
+        try {
+            stored = mongoOperations.find(new Query(Criteria.where("_id").in(ids)), SuiteHealthMetrics.class);
+        } catch (DataAccessException ex) {
+            log.warn("Could not read suite health metrics, recomputing: {}", ex.getMessage());
+            return current;
+        }
+        long oldest = new Date().getTime() - maxAgeMs;
+        Map<String, List<SuiteExeDto>> candidates = new HashMap<>();
+        Map<String, SuiteHealthMetrics> candidateMetrics = new HashMap<>();
+        for (SuiteHealthMetrics metrics : stored) {
+            List<SuiteExeDto> suites = suitesByKey.get(metrics.getKey());
+            if (suites == null || suites.isEmpty() || metrics.getUpdatedAt() < oldest) {
+                continue;
+            }
+            List<SuiteExeDto> sortedList = ReportUtils.getSortedListForSuiteExe(suites);
+            if (metrics.getSuiteCount() == suites.size()
+                    && sortedList.get(0).getS_run_id().equals(metrics.getNewestS_run_id())
+                    && statusDigest(sortedList).equals(metrics.getStatusDigest())) {
+                candidates.put(metrics.getKey(), sortedList);
+                candidateMetrics.put(metrics.getKey(), metrics);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return current;
+        }
+        Map<String, String> testExeDigests;
+        try {
+            testExeDigests = testExeDigests(candidates);
+        } catch (DataAccessException ex) {
+            log.warn("Could not read test exe classifications, recomputing: {}", ex.getMessage());
+            return current;
+        }
+        for (Map.Entry<String, SuiteHealthMetrics> entry : candidateMetrics.entrySet()) {
+            if (testExeDigests.get(entry.getKey()).equals(entry.getValue().getTestExeDigest())) {
+                current.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Computes the metrics of every given suite concurrently and stores them. Suites with a run still in
+     * progress are computed but not stored, their test case counts keep changing.
+     *
+     * @param suitesByKey - suites per project:report_name:env
+     * @param testExesByS_run_id - test exes of all given suites
+     * @param startTime
+     * @param endTime
+     * @return Map<String, SuiteHealthMetrics>
+     */
+    public Map<String, SuiteHealthMetrics> computeAll(Map<String, List<SuiteExeDto>> suitesByKey,
+                                                      Map<String, List<TestExeDto>> testExesByS_run_id,
+                                                      long startTime, long endTime) {
+        Map<String, CompletableFuture<SuiteHealthMetrics>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, List<SuiteExeDto>> entry : suitesByKey.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            futures.put(entry.getKey(), FanOutUtils.supplyAsync(
+                    () -> compute(entry.getKey(), entry.getValue(), testExesByS_run_id, startTime, endTime)));
+        }
+        Map<String, SuiteHealthMetrics> computed = new HashMap<>();
+        List<SuiteHealthMetrics> completed = FanOutUtils.joinAll(new ArrayList<>(futures.values()));
+        int i = 0;
+        for (String key : futures.keySet()) {
+            computed.put(key, completed.get(i++));
+        }
+        return computed;
+    }
+
+    private SuiteHealthMetrics compute(String key, List<SuiteExeDto> suites,
+                                       Map<String, List<TestExeDto>> testExesByS_run_id, long startTime,
+                                       long endTime) {
+        List<SuiteExeDto> sortedList = ReportUtils.getSortedListForSuiteExe(suites);
+        List<String> sRunIds = new ArrayList<>();
+        long failedSuiteCount = 0;
+        double suiteErrCount = 0;
+        double falsePositive = 0;
+        boolean inProgress = false;
+        for (SuiteExeDto suiteExe : suites) {
+            sRunIds.add(suiteExe.getS_run_id());
+            String status = suiteExe.getStatus();
+            if (status.equalsIgnoreCase("FAIL") || status.equalsIgnoreCase("ERR")) {
+                failedSuiteCount++;
+            }
+            if (status.equalsIgnoreCase("ERR")) {
+                suiteErrCount++;
+            }
+            if (status.equalsIgnoreCase("EXE")) {
+                inProgress = true;
+            }
+            if (suiteExe.getClassificationDetails() != null
+                    && suiteExe.getClassificationDetails().getClassification() != null
+                    && suiteExe.getClassificationDetails().isChildFalsePostiveStatus()) {
+                falsePositive++;
+            }
+        }
+
+        SuiteHealthMetrics metrics = new SuiteHealthMetrics();
+        metrics.setId(SuiteHealthMetrics.id(key, startTime, endTime));
+        metrics.setKey(key);
+        metrics.setStartTime(startTime);
+        metrics.setEndTime(endTime);
+        metrics.setPid(sortedList.get(0).getP_id());
+        metrics.setProjectName(sortedList.get(0).getProject_name());
+        metrics.setReportName(sortedList.get(0).getReport_name());
+        metrics.setEnv(sortedList.get(0).getEnv());
+        metrics.setSuiteCount(suites.size());
+        metrics.setNewestS_run_id(sortedList.get(0).getS_run_id());
+        metrics.setStatusDigest(statusDigest(sortedList));
+        metrics.setBrokenIndex(ReportUtils.brokenIndexForSuiteExe(suites));
+        metrics.setAverageFixTime(ReportUtils.averageFixTimeForSuiteExe(suites));
+        metrics.setDownTimeSince(ReportUtils.getDownTimeSinceForSuiteExe(sortedList));
+        metrics.setFailedSuiteCount(failedSuiteCount);
+        metrics.setCulpritMap(ReportUtils.culprit(suites, testExesByS_run_id));
+
+        // Runs on the fan-out executor already, so the counts are fetched in line rather than fanned out again.
+        Map<String, Double> failCounts = RestApiUtils.getTestCaseCount(sRunIds, List.of("ERR", "FAIL"));
+        Map<String, Double> errCounts = RestApiUtils.getTestCaseCount(sRunIds, List.of("ERR"));
+        metrics.setTotalTestCaseCount(failCounts.getOrDefault("totalTestCaseCount", 0.0));
+        metrics.setFailTestCaseCount(failCounts.getOrDefault("testCaseCountWithStatus", 0.0));
+        metrics.setQaScore(ReportUtils.getQAScore(suites.size(), suiteErrCount, falsePositive,
+                errCounts.getOrDefault("totalTestCaseCount", 0.0),
+                errCounts.getOrDefault("testCaseCountWithStatus", 0.0),
+                errCounts.getOrDefault("falsePositiveTestCaseCount", 0.0)));
+        metrics.setUpdatedAt(new Date().getTime());
+
+        if (!inProgress) {
+            try {
+                metrics.setTestExeDigest(testExeDigests(Map.of(key, sortedList)).get(key));
+                mongoOperations.save(metrics);
+            } catch (DataAccessException ex) {
+                log.warn("Could not store suite health metrics for {}: {}", key, ex.getMessage());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Digests the classification and variance fields of the classified test exes of every run, latest first, per
+     * key. Classifications and variances are written by the insertion manager straight to the test exes, so they
+     * are read from its collection in one query; only the few classified documents come back.
+     *
+     * @param sortedListsByKey - suites per key, latest first
+     * @return Map<String, String>
+     */
+    private Map<String, String> testExeDigests(Map<String, List<SuiteExeDto>> sortedListsByKey) {
+        List<String> sRunIds = new ArrayList<>();
+        for (List<SuiteExeDto> sortedList : sortedListsByKey.values()) {
+            for (SuiteExeDto suiteExe : sortedList) {
+                sRunIds.add(suiteExe.getS_run_id());
+            }
+        }
+        Query query = new Query(Criteria.where("s_run_id").in(sRunIds).orOperator(
+                Criteria.where("classificationDetails").ne(null),
+                Criteria.where("varianceId").ne(null),
+                Criteria.where("stepVarianceIds.0").exists(true)));
+        query.fields().include("s_run_id", "tc_run_id", "classificationDetails", "varianceId", "stepVarianceIds")
+                .exclude("_id");
+        query.with(Sort.by("s_run_id", "tc_run_id"));
+        Map<String, List<Document>> testExesByS_run_id = new HashMap<>();
+        for (Document testExe : mongoOperations.find(query, Document.class, TEST_EXE_COLLECTION)) {
+            testExesByS_run_id.computeIfAbsent(testExe.getString("s_run_id"), k -> new ArrayList<>()).add(testExe);
+        }
+
+        Map<String, String> digests = new HashMap<>();
+        for (Map.Entry<String, List<SuiteExeDto>> entry : sortedListsByKey.entrySet()) {
+            MessageDigest digest = sha256();
+            for (SuiteExeDto suiteExe : entry.getValue()) {
+                for (Document testExe : testExesByS_run_id.getOrDefault(suiteExe.getS_run_id(), List.of())) {
+                    update(digest, testExe.toJson());
+                }
+            }
+            digests.put(entry.getKey(), encode(digest));
+        }
+        return digests;
+    }
+
+    /**
+     * Digests s_run_id, status and false positive flag of every run, latest first.
+     *
+     * @param sortedList
+     * @return String
+     */
+    static String statusDigest(List<SuiteExeDto> sortedList) {
+        MessageDigest digest = sha256();
+        for (SuiteExeDto suiteExe : sortedList) {
+            boolean falsePositive = suiteExe.getClassificationDetails() != null
+                    && suiteExe.getClassificationDetails().getClassification() != null
+                    && suiteExe.getClassificationDetails().isChildFalsePostiveStatus();
+            update(digest, suiteExe.getS_run_id());
+            update(digest, suiteExe.getStatus().toUpperCase());
+            update(digest, String.valueOf(falsePositive));
+        }
+        return encode(digest);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Adds the value followed by a NUL separator, so adjacent values cannot run into each other.
+     */
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String encode(MessageDigest digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+}
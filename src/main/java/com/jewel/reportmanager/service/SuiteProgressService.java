@@ -0,0 +1,347 @@
+package com.jewel.reportmanager.service;
+
+import com.jewel.reportmanager.dto.DependencyTree;
+import com.jewel.reportmanager.dto.ProjectDto;
+import com.jewel.reportmanager.dto.SuiteExeDto;
+import com.jewel.reportmanager.dto.SuiteRun;
+import com.jewel.reportmanager.dto.SuiteRunValues;
+import com.jewel.reportmanager.dto.TestExeDto;
+import com.jewel.reportmanager.dto.UserDto;
+import com.jewel.reportmanager.dto.VarianceClassificationDto;
+import com.jewel.reportmanager.utils.ReportUtils;
+import com.jewel.reportmanager.utils.RestApiUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static com.jewel.reportmanager.utils.ReportResponseConstants.ACTIVE_STATUS;
+import static com.jewel.reportmanager.utils.ReportResponseConstants.SUITE_DETAILS_NOT_FOUND;
+import static com.jewel.reportmanager.utils.ReportResponseConstants.USER_NOT_ACCESS_TO_PROJECT;
+
+/**
+ * Pushes the progress of executing suites to STOMP subscribers of /topic/suite/{s_run_id}. Each watched suite is
+ * polled from the insertion manager once per report.live-progress.poll-ms however many clients watch it, with
+ * active variances applied to the statuses as in the report. The last poll is kept per suite and only the
+ * differences are sent: test exes that are new or changed status or end time, the status counts,
+ * expected_completion and the suite status. Clients load the report once and then apply the deltas. The watch
+ * ends with a message flagged completed once the suite leaves EXE.
+ * <p>
+ * Polls run on the liveProgressExecutor pool, at most one per suite at a time, so a slow upstream only delays its
+ * own suite. Every poll downloads the suite's test exes, so a suite is polled once per
+ * report.live-progress.rows-per-poll test exes' worth of intervals. Polls run with the subscriber token that
+ * expires last; the watch is dropped with a message flagged stopped once that token expired or after
+ * report.live-progress.max-failures failed polls in a row, and clients resubscribe with a fresh token.
+ */
+@Slf4j
+@Service
+public class SuiteProgressService {
+
+    public static final String TOPIC_PREFIX = "/topic/suite/";
+
+    @Autowired
+    private SimpMessageSendingOperations simpMessagingTemplate;
+
+    @Autowired
+    private JwtHelperService jwtHelperService;
+
+    @Autowired
+    @Qualifier("liveProgressExecutor")
+    private Executor liveProgressExecutor;
+
+    @Value("${report.live-progress.max-failures:3}")
+    private int maxFailures;
+
+    @Value("${report.live-progress.rows-per-poll:5000}")
+    private int rowsPerPoll;
+
+    private final Map<String, SuiteWatch> watches = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the s_run_id of a suite progress destination, or null for any other destination, including ones
+     * with further path segments or pattern characters.
+     *
+     * @param destination
+     * @return String
+     */
+    public static String getS_run_id(String destination) {
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX) || destination.length() == TOPIC_PREFIX.length()) {
+            return null;
+        }
+        String s_run_id = destination.substring(TOPIC_PREFIX.length());
+        return StringUtils.containsAny(s_run_id, '/', '*', '?', '{', '}') ? null : s_run_id;
+    }
+
+    /**
+     * Checks that the subscriber may view the report of the suite.
+     *
+     * @param s_run_id
+     * @param authentication
+     * @throws AccessDeniedException if the suite does not exist or the user has no viewer access to its project.
+     */
+    public void checkAccess(String s_run_id, Authentication authentication) {
+        runAs(authentication, () -> {
+            SuiteExeDto suite = RestApiUtils.getSuiteExe(s_run_id);
+            if (suite == null) {
+                throw new AccessDeniedException(SUITE_DETAILS_NOT_FOUND);
+            }
+            UserDto user = ReportUtils.getUserDtoFromServetRequest();
+            ProjectDto project = RestApiUtils.getProjectByPidAndStatus(suite.getP_id(), ACTIVE_STATUS);
+            if (!ReportUtils.validateRoleWithViewerAccess(user, project)) {
+                log.error("User {} is not allowed to watch suite {}", user.getUsername(), s_run_id);
+                throw new AccessDeniedException(USER_NOT_ACCESS_TO_PROJECT);
+            }
+        });
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String s_run_id = getS_run_id(accessor.getDestination());
+        Principal user = event.getUser();
+        if (s_run_id == null || !(user instanceof Authentication)) {
+            return;
+        }
+        String subscription = accessor.getSessionId() + ":" + accessor.getSubscriptionId();
+        Authentication authentication = (Authentication) user;
+        long expiresAt = getExpiresAt(authentication);
+        watches.compute(s_run_id, (key, watch) -> {
+            SuiteWatch suiteWatch = watch != null ? watch : new SuiteWatch(key);
+            suiteWatch.subscriptions.add(subscription);
+            if (suiteWatch.authentication == null || expiresAt > suiteWatch.expiresAt) {
+                suiteWatch.authentication = authentication;
+                suiteWatch.expiresAt = expiresAt;
+            }
+            return suiteWatch;
+        });
+        log.info("Subscription {} is watching suite {}", subscription, s_run_id);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String subscription = accessor.getSessionId() + ":" + accessor.getSubscriptionId();
+        removeSubscriptions(subscription::equals);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String sessionPrefix = event.getSessionId() + ":";
+        removeSubscriptions(subscription -> subscription.startsWith(sessionPrefix));
+    }
+
+    @Scheduled(fixedDelayString = "${report.live-progress.poll-ms:5000}")
+    public void pollWatchedSuites() {
+        for (SuiteWatch watch : watches.values()) {
+            if (watch.intervalsToSkip > 0) {
+                watch.intervalsToSkip--;
+                continue;
+            }
+            if (!watch.polling.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                liveProgressExecutor.execute(() -> {
+                    try {
+                        pollOrStop(watch);
+                    } finally {
+                        watch.polling.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                watch.polling.set(false);
+                log.warn("Live progress pool is saturated, suite {} is polled next round", watch.s_run_id);
+            }
+        }
+    }
+
+    private void pollOrStop(SuiteWatch watch) {
+        if (System.currentTimeMillis() >= watch.expiresAt) {
+            stop(watch, "token expired");
+            return;
+        }
+        try {
+            runAs(watch.authentication, () -> poll(watch));
+            watch.failures = 0;
+        } catch (RuntimeException ex) {
+            log.error("Error occurred while polling suite {} for live progress", watch.s_run_id, ex);
+            if (++watch.failures >= maxFailures) {
+                stop(watch, "polling failed");
+            }
+        }
+    }
+
+    private void stop(SuiteWatch watch, String reason) {
+        if (watches.remove(watch.s_run_id, watch)) {
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("s_run_id", watch.s_run_id);
+            message.put("completed", false);
+            message.put("stopped", reason);
+            simpMessagingTemplate.convertAndSend(TOPIC_PREFIX + watch.s_run_id, message);
+            log.info("Stopped watching suite {}: {}", watch.s_run_id, reason);
+        }
+    }
+
+    private long getExpiresAt(Authentication authentication) {
+        try {
+            Long expiresAt = jwtHelperService.getExpirationFromJwtToken(
+                    String.valueOf(authentication.getCredentials()));
+            return expiresAt != null ? expiresAt : Long.MAX_VALUE;
+        } catch (RuntimeException ex) {
+            return 0L;
+        }
+    }
+
+    private void poll(SuiteWatch watch) {
+        SuiteExeDto suite = RestApiUtils.getSuiteExe(watch.s_run_id);
+        if (suite == null) {
+            watches.remove(watch.s_run_id, watch);
+            return;
+        }
+        // Same source and variance adjustment as /v3/rule/action, so the deltas match the report.
+        List<TestExeDto> testExes = RestApiUtils.fetchTestExes(watch.s_run_id, null, null);
+        Map<Long, VarianceClassificationDto> varianceList = new HashMap<>();
+        if (suite.getVarianceIds() != null && !suite.getVarianceIds().isEmpty()) {
+            for (VarianceClassificationDto varianceClassification : RestApiUtils.getVarianceClassificationList(
+                    suite.getVarianceIds(), ACTIVE_STATUS)) {
+                varianceList.put(varianceClassification.getVarianceId(), varianceClassification);
+            }
+        }
+        ReportUtils.applyActiveVariances(testExes, varianceList, new ArrayList<>(varianceList.keySet()));
+        watch.intervalsToSkip = rowsPerPoll > 0 ? (testExes.size() - 1) / rowsPerPoll : 0;
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        List<Map<String, Object>> changed = new ArrayList<>();
+        Map<String, Long> statusCounts = new TreeMap<>();
+        for (TestExeDto testExe : testExes) {
+            statusCounts.merge(testExe.getStatus().toUpperCase(), 1L, Long::sum);
+            String fingerprint = testExe.getStatus() + ":" + testExe.getEnd_time();
+            if (!fingerprint.equals(watch.fingerprints.put(testExe.getTc_run_id(), fingerprint))) {
+                changed.add(createTestExeDelta(testExe));
+            }
+        }
+        if (!changed.isEmpty()) {
+            delta.put("testExes", changed);
+        }
+        if (!statusCounts.equals(watch.statusCounts)) {
+            delta.put("statusCounts", statusCounts);
+            watch.statusCounts = statusCounts;
+        }
+        if (!Objects.equals(suite.getStatus(), watch.status)) {
+            delta.put("status", suite.getStatus());
+            watch.status = suite.getStatus();
+        }
+        boolean completed = !"EXE".equalsIgnoreCase(suite.getStatus());
+        if (!completed) {
+            Long expectedCompletion = getExpectedCompletion(suite);
+            if (!Objects.equals(expectedCompletion, watch.expectedCompletion)) {
+                delta.put("expected_completion", expectedCompletion);
+                watch.expectedCompletion = expectedCompletion;
+            }
+        }
+        if (!delta.isEmpty() || completed) {
+            delta.put("s_run_id", watch.s_run_id);
+            delta.put("completed", completed);
+            simpMessagingTemplate.convertAndSend(TOPIC_PREFIX + watch.s_run_id, delta);
+        }
+        if (completed) {
+            watches.remove(watch.s_run_id, watch);
+            log.info("Suite {} finished with status {}, stopped watching it", watch.s_run_id, suite.getStatus());
+        }
+    }
+
+    private static Long getExpectedCompletion(SuiteExeDto suite) {
+        SuiteRun suiteRun = RestApiUtils.getSuiteRun(suite.getS_run_id());
+        if (suiteRun == null) {
+            return null;
+        }
+        List<List<DependencyTree>> dependencies = new ArrayList<>();
+        for (SuiteRunValues suiteRunValues : suiteRun.getValues()) {
+            if (suiteRunValues.getExpected_testcases() != null) {
+                dependencies.addAll(suiteRunValues.getExpected_testcases());
+            }
+        }
+        return Math.round(RestApiUtils.getTimeRemainingNew(suite, dependencies));
+    }
+
+    private static Map<String, Object> createTestExeDelta(TestExeDto testExe) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("tc_run_id", testExe.getTc_run_id());
+        row.put("name", testExe.getName());
+        row.put("status", testExe.getStatus());
+        row.put("start_time", testExe.getStart_time());
+        row.put("end_time", testExe.getEnd_time());
+        row.put("product_type", testExe.getProduct_type());
+        row.put("category", testExe.getCategory());
+        return row;
+    }
+
+    private void removeSubscriptions(Predicate<String> matches) {
+        for (String s_run_id : watches.keySet()) {
+            watches.computeIfPresent(s_run_id, (key, watch) -> {
+                watch.subscriptions.removeIf(matches);
+                return watch.subscriptions.isEmpty() ? null : watch;
+            });
+        }
+    }
+
+    private static void runAs(Authentication authentication, Runnable runnable) {
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            runnable.run();
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+
+    private static final class SuiteWatch {
+
+        private final String s_run_id;
+        private final Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+        private final Map<String, String> fingerprints = new HashMap<>();
+        private final AtomicBoolean polling = new AtomicBoolean();
+        private volatile Authentication authentication;
+        private volatile long expiresAt;
+        private volatile int intervalsToSkip;
+        private int failures;
+        private Map<String, Long> statusCounts;
+        private String status;
+        private Long expectedCompletion;
+
+        private SuiteWatch(String s_run_id) {
+            this.s_run_id = s_run_id;
+        }
+    }
+
+}
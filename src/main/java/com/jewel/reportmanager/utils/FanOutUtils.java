@@ -0,0 +1,176 @@
+package com.jewel.reportmanager.utils;
+
+import com.jewel.reportmanager.exception.CustomDataException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static com.jewel.reportmanager.enums.OperationType.Failure;
+import static com.jewel.reportmanager.utils.ReportResponseConstants.UPSTREAM_TIMEOUT;
+
+/**
+ * Runs independent upstream calls concurrently on the bounded report fan-out executor.
+ * The executor propagates the caller's security context, so {@link ReportUtils#getAuthHeader()}
+ * keeps working inside the submitted tasks.
+ * Joins wait at least as long as one upstream call may take, so a call that completed serially before
+ * does not time out here. A join that gives up does not abort the call, which still ends within the
+ * RestTemplate's own timeouts.
+ * Work running under {@link #runOn(Executor, Runnable)}, such as an export, fans out on the given executor
+ * instead, including calls fanned out from within its tasks, so it does not compete with interactive reports.
+ */
+@Slf4j
+@Service
+public class FanOutUtils {
+
+    private static final ThreadLocal<Executor> SCOPED_EXECUTOR = new ThreadLocal<>();
+
+    private static Executor executor;
+    private static long timeoutMs = 70000;
+
+    @Autowired
+    public void setExecutor(@Qualifier("reportFanOutExecutor") Executor executor) {
+        FanOutUtils.executor = executor;
+    }
+
+    @Autowired
+    public void setTimeoutMs(@Value("${report.fanout.timeout-ms:0}") long timeoutMs,
+                             @Value("${rest.client.connection-request-timeout-ms:5000}") long connectionRequestTimeoutMs,
+                             @Value("${rest.client.connect-timeout-ms:5000}") long connectTimeoutMs,
+                             @Value("${rest.client.read-timeout-ms:60000}") long readTimeoutMs) {
+        long upstreamCallMs = connectionRequestTimeoutMs + connectTimeoutMs + readTimeoutMs;
+        if (timeoutMs < upstreamCallMs) {
+            log.info("Fan-out join timeout raised from {} ms to the upstream call timeout of {} ms", timeoutMs,
+                    upstreamCallMs);
+            timeoutMs = upstreamCallMs;
+        }
+        FanOutUtils.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Runs the task on the calling thread with every fan-out made while it runs submitted to the given executor.
+     *
+     * @param executor
+     * @param runnable
+     */
+    public static void runOn(Executor executor, Runnable runnable) {
+        callOn(executor, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Submits the supplier to the executor of the current {@link #runOn(Executor, Runnable)} scope, or to the
+     * fan-out executor outside of one.
+     *
+     * @param supplier
+     * @return CompletableFuture<T>
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        Executor scoped = SCOPED_EXECUTOR.get();
+        if (scoped != null) {
+            return CompletableFuture.supplyAsync(() -> callOn(scoped, supplier), scoped);
+        }
+        if (executor == null) {
+            return CompletableFuture.completedFuture(supplier.get());
+        }
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    /**
+     * Waits for a mandatory result. Exceptions raised by the task are rethrown as they are, a timeout is
+     * reported as a gateway timeout.
+     *
+     * @param future
+     * @return T
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            log.error("Upstream call did not complete within {} ms", timeoutMs);
+            throw new CustomDataException(UPSTREAM_TIMEOUT, null, Failure, HttpStatus.GATEWAY_TIMEOUT);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CustomDataException(UPSTREAM_TIMEOUT, null, Failure, HttpStatus.GATEWAY_TIMEOUT);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+
+    /**
+     * Waits for an optional result, falling back to the given value when the task fails or times out so a
+     * single slow upstream does not fail the whole report.
+     *
+     * @param future
+     * @param fallback
+     * @param description
+     * @return T
+     */
+    public static <T> T joinOrDefault(CompletableFuture<T> future, T fallback, String description) {
+        try {
+            return join(future);
+        } catch (RuntimeException ex) {
+            log.warn("Falling back for {}: {}", description, ex.getMessage());
+            return fallback;
+        }
+    }
+
+    /**
+     * Waits for all futures, keeping the order they were submitted in.
+     *
+     * @param futures
+     * @return List<T>
+     */
+    public static <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(join(future));
+            }
+        } catch (RuntimeException ex) {
+            // Only skips tasks still queued, running calls are not interrupted.
+            futures.forEach(future -> future.cancel(false));
+            throw ex;
+        }
+        return results;
+    }
+
+    private static <T> T callOn(Executor executor, Supplier<T> supplier) {
+        Executor previous = SCOPED_EXECUTOR.get();
+        SCOPED_EXECUTOR.set(executor);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                SCOPED_EXECUTOR.remove();
+            } else {
+                SCOPED_EXECUTOR.set(previous);
+            }
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new CompletionException(cause);
+    }
+
+}
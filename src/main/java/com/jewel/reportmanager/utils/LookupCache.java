@@ -0,0 +1,135 @@
+package com.jewel.reportmanager.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caches user, project and project role lookups. A lookup is first memoised for the current request and then
+ * kept in a bounded cross-request cache for a short TTL. Users, projects and roles are written by other services,
+ * so nothing here can invalidate them; absent results are kept for an even shorter TTL so a newly granted role or
+ * created project shows up quickly.
+ */
+@Service
+public class LookupCache {
+
+    private static final String REQUEST_ATTRIBUTE = LookupCache.class.getName();
+
+    private static Cache<String, Optional<Object>> users = build(60000, 5000, 10000);
+    private static Cache<String, Optional<Object>> projects = build(60000, 5000, 10000);
+    private static Cache<String, Optional<Object>> projectRoles = build(60000, 5000, 10000);
+
+    @Autowired
+    public void configure(@Value("${report.lookup-cache.ttl-ms:60000}") long ttlMs,
+                          @Value("${report.lookup-cache.negative-ttl-ms:5000}") long negativeTtlMs,
+                          @Value("${report.lookup-cache.maximum-size:10000}") long maximumSize) {
+        users = build(ttlMs, negativeTtlMs, maximumSize);
+        projects = build(ttlMs, negativeTtlMs, maximumSize);
+        projectRoles = build(ttlMs, negativeTtlMs, maximumSize);
+    }
+
+    private static Cache<String, Optional<Object>> build(long ttlMs, long negativeTtlMs, long maximumSize) {
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        long negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(negativeTtlMs, ttlMs));
+        return Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Optional<Object>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<Object> value, long currentTime) {
+                        return value.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<Object> value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<Object> value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Returns the user for username, loading it with loader on a miss.
+     *
+     * @param username
+     * @param loader
+     * @return T
+     */
+    public static <T> T getUser(String username, Supplier<T> loader) {
+        return get(users, "user", username, loader);
+    }
+
+    /**
+     * Returns the project for pid and status, loading it with loader on a miss.
+     *
+     * @param pid
+     * @param status
+     * @param loader
+     * @return T
+     */
+    public static <T> T getProject(Long pid, String status, Supplier<T> loader) {
+        return get(projects, "project", pid + ":" + status, loader);
+    }
+
+    /**
+     * Returns the project role for pid, username and status, loading it with loader on a miss. A null status
+     * stands for a role lookup regardless of status.
+     *
+     * @param pid
+     * @param username
+     * @param status
+     * @param loader
+     * @return T
+     */
+    public static <T> T getProjectRole(Long pid, String username, String status, Supplier<T> loader) {
+        return get(projectRoles, "projectRole", pid + ":" + username + ":" + status, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(Cache<String, Optional<Object>> cache, String cacheName, String key,
+                             Supplier<T> loader) {
+        Map<String, Optional<Object>> requestScope = getRequestScope();
+        String requestKey = cacheName + ":" + key;
+        Optional<Object> value = requestScope != null ? requestScope.get(requestKey) : null;
+        if (value == null) {
+            value = cache.get(key, k -> Optional.ofNullable(loader.get()));
+            if (requestScope != null) {
+                requestScope.put(requestKey, value);
+            }
+        }
+        return (T) value.orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Optional<Object>> getRequestScope() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<String, Optional<Object>> requestScope = (Map<String, Optional<Object>>) attributes.getAttribute(
+                REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (requestScope == null) {
+            requestScope = new HashMap<>();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, requestScope, RequestAttributes.SCOPE_REQUEST);
+        }
+        return requestScope;
+    }
+
+}
@@ -11,6 +11,8 @@ public class ReportResponseConstants {
     public static final String INVALID_DATA = "Invalid Data";
 
     public static final String GEM_PYP =  "GEMPYP";
+    public static final String SUITE_EXE_COLLECTION = "suiteExe";
+    public static final String TEST_EXE_COLLECTION = "testExe";
     public static final String COLUMN_MAPPING_PRESENT = "Column Mapping already present";
     public static final String COLUMN_MAPPING_DELETE_SUCCESSFULLY = "Column Mapping Delete Successfully";
     public static final String COLUMN_DETAILS_NOT_FOUND = "Column details not found!!";
@@ -46,4 +48,9 @@ public class ReportResponseConstants {
     public static final String DETAILS_FETCHED_SUCCESSFULLY = "Details fetched successfully";
     public static final String REPORT_UPDATED_SUCCESSFULLY = "Report is updated Successfully !!";
     public static final String NO_DATA_FOR_COMPANY = "there is no data for this company";
+    public static final String UPSTREAM_TIMEOUT = "Upstream service did not respond in time, please try again !!";
+    public static final String EXPORT_JOB_SUBMITTED = "Export job submitted successfully !!";
+    public static final String EXPORT_JOB_NOT_FOUND = "Export job not found !!";
+    public static final String EXPORT_NOT_READY = "Export is not completed yet !!";
+    public static final String EXPORT_QUEUE_FULL = "Too many exports are running, please try again later !!";
 }
@@ -2,7 +2,8 @@ package com.jewel.reportmanager.utils;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.gson.Gson;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jewel.reportmanager.dto.*;
 import com.jewel.reportmanager.enums.OperationType;
 import com.jewel.reportmanager.enums.StatusColor;
@@ -19,6 +20,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.*;
@@ -29,9 +31,10 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.lang.reflect.Type;
 import java.text.DecimalFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.jewel.reportmanager.enums.OperationType.*;
@@ -49,6 +52,9 @@ public class ReportUtils {
     private static MongoOperations mongoOperations;
     private static RestTemplate restTemplate;
     private static ObjectMapper mapper = new ObjectMapper();
+    private static int testExeBatchSize = 200;
+    private static int actionReportPageSize = 100;
+    private static Cache<String, SuiteReportDigest> suiteReportDigests = buildSuiteReportDigestCache(60000, 200000);
 
     @Autowired
     private ColumnMappingService columnMappingService;
@@ -73,6 +79,34 @@ public class ReportUtils {
         ReportUtils.mongoOperations = mongoOperations;
     }
 
+    @Value("${report.action.page-size:100}")
+    public void setActionReportPageSize(int actionReportPageSize) {
+        ReportUtils.actionReportPageSize = actionReportPageSize;
+    }
+
+    @Autowired
+    public void configureSuiteReportDigests(@Value("${report.action.digest-ttl-ms:60000}") long ttlMs,
+                                            @Value("${report.action.digest-maximum-rows:200000}") long maximumRows) {
+        suiteReportDigests = buildSuiteReportDigestCache(ttlMs, maximumRows);
+    }
+
+    /**
+     * Digests are weighed by their row count, so a few very large suites cannot keep the heap full the way a bound
+     * on the number of digests would let them.
+     */
+    private static Cache<String, SuiteReportDigest> buildSuiteReportDigestCache(long ttlMs, long maximumRows) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .maximumWeight(maximumRows)
+                .<String, SuiteReportDigest>weigher((key, digest) -> digest.rows.size() + 1)
+                .build();
+    }
+
+    @Value("${report.testexe.batch-size:200}")
+    public void setTestExeBatchSize(int testExeBatchSize) {
+        ReportUtils.testExeBatchSize = testExeBatchSize;
+    }
+
     public void populateIconProperties(TestExeDto testExe, Map<String, Object> temp, boolean clickable, boolean varianceIsActive, boolean falsePositiveIsActive, boolean varianceIsThere, boolean falsePositiveIsThere) {
         if (testExe.getStatus().equalsIgnoreCase("FAIL") || testExe.getStatus().equalsIgnoreCase("ERR")) {
             temp.put("EDIT_ICON", ReportUtils.createCustomObject(ACTIVE_STATUS, "text", ACTIVE_STATUS, "left"));
@@ -96,24 +130,11 @@ public class ReportUtils {
         }
     }
 
-    public void depopulateMap(Map<String, Object> map) {
-        map.remove("user_defined_data");
-        map.remove("steps");
-        map.remove("meta_data");
-        map.remove("ignore");
-        map.remove("log_file");
-        map.remove("result_file");
-        map.remove("s_run_id");
-        map.remove("tc_run_id");
-    }
-
     public void populateTempAccordingToKey(String key, Map<String, Object> temp, LinkedHashMap<String, Object> map, Map<String, Object> statusSubType) {
         if (key.equalsIgnoreCase("start_time") || key.equalsIgnoreCase("end_time")) {
-            Map<String, Object> timeReport = new HashMap<>();
-            timeReport.put("subType", "datetime");
             temp.put(ReportUtils.changeKeyValue(key),
                     ReportUtils.createCustomObject(map.get(key), "date", map.get(key), "center",
-                            timeReport));
+                            Cell.SUBTYPE_DATETIME));
         } else if (key.equalsIgnoreCase("status")) {
             temp.put(ReportUtils.changeKeyValue(key),
                     ReportUtils.createCustomObject(map.get(key), "crud", map.get(key), "center", statusSubType));
@@ -139,7 +160,6 @@ public class ReportUtils {
     }
 
     public Response getResultWithTcRunId(String tc_run_id) {
-        ObjectMapper oMapper = new ObjectMapper();
         Map<String, Object> stepData = new HashMap<>();
         Set<String> stepsListHeaders = new HashSet<>();
         List<Map<String, Object>> stepsVariableValue = new ArrayList<>();
@@ -150,9 +170,8 @@ public class ReportUtils {
             throw new CustomDataException(TESTCASE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.OK);
         }
 
-        String username = ReportUtils.getUserDtoFromServetRequest().getUsername();
-
         UserDto user = ReportUtils.getUserDtoFromServetRequest();
+        String username = user.getUsername();
 
         SuiteExeDto getSuite = RestApiUtils.getSuiteExe(tempTest.getS_run_id());
         if (getSuite == null) {
@@ -196,8 +215,6 @@ public class ReportUtils {
                 statusTestLevel = "PASS";
             }
         }
-        Map<String, Object> statusSubType = new HashMap<>();
-        statusSubType.put("subType", "falseVariance");
         List<Map<String, Object>> gallery = new ArrayList<>();
         StepsDto steps = RestApiUtils.getSteps(tc_run_id);
         if (steps != null) {
@@ -208,7 +225,7 @@ public class ReportUtils {
                 boolean varianceIsThere = varianceIsThereAtTestLevel;
                 boolean falsePositiveIsActive = falsePositiveIsActiveAtTestLevel;
                 boolean falsePositiveIsThere = falsePositiveIsThereAtTestLevel;
-                Map<String, Object> stepMap = oMapper.convertValue(step, Map.class);
+                Map<String, Object> stepMap = mapper.convertValue(step, Map.class);
                 stepsListHeaders.addAll(stepMap.keySet());
                 stepsListHeaders.remove("tc_run_id");
                 stepsListHeaders.remove("s_run_id");
@@ -230,7 +247,7 @@ public class ReportUtils {
                     }
                     if (stepsListHeaders.contains("CLASSIFICATIONDETAILS")) {
                         falsePositiveIsThere = true;
-                        classificationDetails = oMapper.convertValue(stepMap.get("CLASSIFICATIONDETAILS"), ClassificationDetails.class);
+                        classificationDetails = mapper.convertValue(stepMap.get("CLASSIFICATIONDETAILS"), ClassificationDetails.class);
                         if (classificationDetails != null && classificationDetails.isFalsePositiveStatus()) {
                             clickable = true;
                             falsePositiveIsActive = true;
@@ -248,20 +265,18 @@ public class ReportUtils {
                                 subStepsHeaders.addAll(map1.keySet());
                                 for (String key2 : subStepsHeaders) {
                                     if (key2.equalsIgnoreCase("start_time") || key2.equalsIgnoreCase("end_time")) {
-                                        Map<String, Object> timeReport = new HashMap<>();
-                                        timeReport.put("subType", "datetime");
                                         subStepsTemp.put(ReportUtils.changeKeyValue(key2),
                                                 ReportUtils.createCustomObject(map1.get(key2), "date", map1.get(key2),
-                                                        "center", timeReport));
+                                                        "center", Cell.SUBTYPE_DATETIME));
                                     } else if (key2.equalsIgnoreCase("status")) {
                                         if (subStepStatus != null) {
                                             subStepsTemp.put(ReportUtils.changeKeyValue(key2),
                                                     ReportUtils.createCustomObject(subStepStatus, "crud", subStepStatus,
-                                                            "center", statusSubType));
+                                                            "center", Cell.SUBTYPE_FALSE_VARIANCE));
                                         } else {
                                             subStepsTemp.put(ReportUtils.changeKeyValue(key2),
                                                     ReportUtils.createCustomObject(map1.get(key2), "crud", map1.get(key2),
-                                                            "center", statusSubType));
+                                                            "center", Cell.SUBTYPE_FALSE_VARIANCE));
                                         }
                                         subStepsTemp.put("EDIT_ICON", ReportUtils.createCustomObject("INACTIVE", "text", "INACTIVE", "left"));
                                         if (map1.get(key2) != null && (map1.get(key2).toString().equalsIgnoreCase("ERR") || map1.get(key2).toString().equalsIgnoreCase("FAIL")) || (classificationDetails != null && classificationDetails.isFalsePositiveStatus())) {
@@ -315,11 +330,9 @@ public class ReportUtils {
                     }
 
                     if (key.equalsIgnoreCase("start_time") || key.equalsIgnoreCase("end_time")) {
-                        Map<String, Object> timeReport = new HashMap<>();
-                        timeReport.put("subType", "datetime");
                         temp.put(ReportUtils.changeKeyValue(key),
                                 ReportUtils.createCustomObject(stepMap.get(key), "date", stepMap.get(key),
-                                        "center", timeReport));
+                                        "center", Cell.SUBTYPE_DATETIME));
                     } else if (key.equalsIgnoreCase("status")) {
                         if (status != null) {
                             statuesList.add(status);
@@ -429,14 +442,8 @@ public class ReportUtils {
             ProjectDto project,
             String user
     ) {
-//        Map<String, Object> last5RunsBarGraph = ReportUtils.Last5RunsStackedBarChartBySuiteExe(getSuite);
-//        if (last5RunsBarGraph != null) {
-//            result.put("Last_5_Runs_Bar_Chart", last5RunsBarGraph);
-//        }
         Map<String, Object> testcaseDetails = new HashMap<>();
         List<Map<String, Object>> testcaseDetailsdata = new ArrayList<>();
-        Map<String, List<Map<String, Object>>> statusFilterMap = new HashMap<>();
-        Set<String> testcaseDetailsHeaders = new LinkedHashSet<>();
 
         if (getSuite.getTestcase_details() == null) {
             log.error("Error occurred due to records not found");
@@ -451,75 +458,117 @@ public class ReportUtils {
             throw new CustomDataException(PAGE_NO_CANNOT_BE_NEGATIVE_OR_ZERO, null, Failure, HttpStatus.OK);
         }
 
-        List<TestExeDto> tempTest = RestApiUtils.fetchTestExes(s_run_id, sort, sortedColumn);
-        if (tempTest.isEmpty()) {
-            log.error("Error occurred due to records not found");
-            throw new CustomDataException(TESTCASE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.OK);
+        SuiteReportDigest digest;
+        List<TestExeDto> rows;
+        if (pageNo == null) {
+            digest = createSuiteReportDigest(fetchTestExes(s_run_id, sort, sortedColumn), getSuite, varianceList,
+                    varianceIds);
+            rows = digest.rows;
+        } else {
+            String key = s_run_id + ":" + sort + ":" + sortedColumn + ":" + new TreeSet<>(varianceIds);
+            digest = suiteReportDigests.get(key, k -> createSuiteReportDigest(
+                    fetchTestExes(s_run_id, sort, sortedColumn), getSuite, varianceList, varianceIds));
+            int from = (int) Math.min((long) (pageNo - 1) * actionReportPageSize, digest.rows.size());
+            int to = Math.min(from + actionReportPageSize, digest.rows.size());
+            rows = digest.rows.subList(from, to);
+            result.put("pageSize", actionReportPageSize);
+            result.put("totalPages", (digest.rows.size() + actionReportPageSize - 1) / actionReportPageSize);
         }
 
-        Set<String> frameworks = new HashSet<>();
+        for (TestExeDto testExe : rows) {
+            testcaseDetailsdata.add(createTestcaseRow(testExe, varianceList, varianceIds));
+        }
+        testcaseDetails.put("data", testcaseDetailsdata);
+        Set<String> testcaseDetailsHeaders = new LinkedHashSet<>(digest.headers);
+        testcaseDetails.put("headers", testcaseDetailsHeaders);
+        getSuite.setStatus(digest.status);
+        if (digest.last5RunsBarGraph != null) {
+            result.put("Last_5_Runs_Bar_Chart", digest.last5RunsBarGraph);
+        }
+        if (digest.testCaseInfo != null) {
+            result.put("Testcase Info", digest.testCaseInfo);
+        }
+        if (digest.categoryBarChart != null) {
+            result.put("Category_Bar_Chart", digest.categoryBarChart);
+        }
+        result.put("Execution Info", ReportUtils.createExecutionInfoHeaders(getSuite));
+        result.put("Infra Headers", digest.infraHeaders);
+        result.put("User Details", digest.userDetails);
+        result.put("Build Details", ReportUtils.createBuildHeaders(getSuite));
+        result.put("Execution details", digest.executionDetails);
+        result.put("Time Details", digest.timeDetails);
+        result.put("status", getSuite.getStatus());
+
+        ProjectRoleDto projectRole = ServerTiming.time(ServerTiming.ACL,
+                () -> RestApiUtils.getProjectRoleByPidAndUsername(project.getPid(), user));
+        if(projectRole!=null) {
+            result.put("Project role", projectRole.getRole());
+        } else {
+            result.put("Project role","ADMIN");
+        }
+
+        List<String> columns = columnMappingService.findColumnMapping(project.getPid(), getSuite.getReport_name(), new ArrayList<>(digest.frameworks));
+        if (columns != null && columns.size() > 0) {
+            List<String> headers = new ArrayList<>();
+            for (String header : testcaseDetailsHeaders) {
+                headers.add(header.replace(" ", "_").toLowerCase());
+            }
+            List<String> finalHeaders = new ArrayList<>();
+            for (String column : columns) {
+                String value = column.toLowerCase().replace(" ", "_");
+                if (headers.contains(value)) {
+                    finalHeaders.add(value);
+                    headers.remove(value);
+                }
+            }
+            testcaseDetails.put("headers", finalHeaders);
+            testcaseDetails.put("filterHeaders", headers);
+            testcaseDetails.replace("headers", ReportUtils.headersDataRefactor((List<String>) testcaseDetails.get("headers")));
+            testcaseDetails.replace("filterHeaders", ReportUtils.headersDataRefactor((List<String>) testcaseDetails.get("filterHeaders")));
+            result.put("TestCase_Details", testcaseDetails);
+            result.put("totalElements", getSuite.getTestcase_details().size());
+
+            return new Response(result, DATA_FETCHED_SUCCESSFULLY, Success);
+        }
+
+        List<String> data = new ArrayList<>((Set<String>) testcaseDetails.get("headers"));
+        testcaseDetails.replace("headers", ReportUtils.headersDataRefactor(data));
+        result.put("TestCase_Details", testcaseDetails);
+        result.put("totalElements", getSuite.getTestcase_details().size());
+
+        return new Response(result, DATA_FETCHED_SUCCESSFULLY, Success);
+    }
+
+    /**
+     * Computes everything the finished suite report needs from all test exes of the suite: the status of each test
+     * exe once active variances are applied, the display order, the table headers and the suite level charts and
+     * headers. Statuses of the given test exes are updated in place.
+     *
+     * @param testExes
+     * @param getSuite
+     * @param varianceList
+     * @param varianceIds
+     * @return SuiteReportDigest
+     */
+    private SuiteReportDigest createSuiteReportDigest(List<TestExeDto> testExes, SuiteExeDto getSuite,
+                                                      Map<Long, VarianceClassificationDto> varianceList,
+                                                      List<Long> varianceIds) {
+        SuiteReportDigest digest = new SuiteReportDigest();
         Set<String> category = new HashSet<>();
         Map<String, Long> categoryMap = new HashMap<>();
         List<String> statues = new ArrayList<>();
-        boolean suiteVarianceIsActive = false;
-        boolean suiteVarianceIsThere = false;
-        boolean suiteFalsePositiveIsActive = false;
-        boolean suiteFalsePositiveIsThere = false;
         HashSet<String> statusesSet = new HashSet<>();
-        Map<String, Object> statusSubType = new HashMap<>();
-        statusSubType.put("subType", "falseVariance");
-        for (TestExeDto testExe : tempTest) {
-            boolean clickable = false;
-            boolean varianceIsActive = false;
-            boolean varianceIsThere = false;
-            boolean falsePositiveIsActive = false;
-            boolean falsePositiveIsThere = false;
+        Map<String, StepsDto> stepsByTc_run_id = getStepsForActiveStepVariances(testExes, varianceIds);
+        for (TestExeDto testExe : testExes) {
             if (testExe.getVarianceId() != null || (testExe.getStepVarianceIds() != null && !testExe.getStepVarianceIds().isEmpty())) {
-                varianceIsThere = true;
-                suiteVarianceIsThere = true;
                 if(varianceList.get(testExe.getVarianceId()) != null) {
-                    varianceIsActive = true;
-                    suiteVarianceIsActive = true;
-                    clickable = true;
                     testExe.setStatus("PASS");
                 }
                 if (ReportUtils.checkoneListContainsElementOfAnotherList(varianceIds, testExe.getStepVarianceIds())) {
-                    varianceIsActive = true;
-                    suiteVarianceIsActive = true;
-                    testExe.setStatus(ReportUtils.checkStatusOfTestCaseByStepsIfVarianceIsThere(testExe.getTc_run_id(), varianceList));
+                    testExe.setStatus(ReportUtils.checkStatusOfTestCaseByStepsIfVarianceIsThere(stepsByTc_run_id.get(testExe.getTc_run_id()), varianceList));
                 }
             }
-            if (testExe.getClassificationDetails() != null) {
-                suiteFalsePositiveIsThere = true;
-                falsePositiveIsThere = true;
-                if (testExe.getClassificationDetails().isFalsePositiveStatus()) {
-                    suiteFalsePositiveIsActive = true;
-                    falsePositiveIsActive = true;
-                    clickable = true;
-                }
-                if (testExe.getClassificationDetails().isChildFalsePostiveStatus()) {
-                    suiteFalsePositiveIsActive = true;
-                    falsePositiveIsActive = true;
-                }
-            }
-            ObjectMapper oMapper = new ObjectMapper();
-            LinkedHashMap<String, Object> map = oMapper.convertValue(testExe, LinkedHashMap.class);
-            if (testExe.getUser_defined_data() != null) {
-                map.putAll(testExe.getUser_defined_data());
-            }
-
-            depopulateMap(map);
-
-            map.remove("classificationDetails");
-            map.remove("stepVarianceIds");
-            map.remove("job_name");
-            testcaseDetailsHeaders.addAll(map.keySet());
-            Map<String, Object> temp = new HashMap<>();
-            for (String key : map.keySet()) {
-                populateTempAccordingToKey(key, temp, map, statusSubType);
-            }
-
-            populateIconProperties(testExe, temp, clickable, varianceIsActive, falsePositiveIsActive, varianceIsThere, falsePositiveIsThere);
+            TestExeProjection.SUITE_REPORT.addColumnNames(testExe, digest.headers);
 
             if (testExe.getCategory() != null) {
                 if (testExe.getCategory().getClass().isArray()) {
@@ -536,28 +585,11 @@ public class ReportUtils {
                             categoryMap.getOrDefault(category1.toUpperCase() + "_" + testExe.getStatus(), 0L) + 1);
                 }
             }
-            frameworks.add(testExe.getProduct_type());
+            digest.frameworks.add(testExe.getProduct_type());
             statusesSet.add(testExe.getStatus());
             statues.add(testExe.getStatus());
-            temp.put("TC_RUN_ID", ReportUtils.createCustomObject(testExe.getTc_run_id(), "text", testExe.getTc_run_id(), "left"));
-            temp.put("VARIANCEID", ReportUtils.createCustomObject(testExe.getVarianceId(), "text", testExe.getVarianceId(), "left"));
-            temp.remove("STEPVARIANCEIDS");
-            temp.remove("CLASSIFICATIONDETAILS");
-
-            List<Map<String, Object>> statusMap = statusFilterMap.getOrDefault(testExe.getStatus().toUpperCase(), new ArrayList<>());
-            statusMap.add(temp);
-            statusFilterMap.put(testExe.getStatus().toUpperCase(), statusMap);
-
         }
 
-        for (StatusColor statusColor : ReportUtils.getStatusColorInSorted()) {
-            if (statusFilterMap.get(statusColor.toString().toUpperCase()) != null) {
-                testcaseDetailsdata.addAll(statusFilterMap.get(statusColor.toString().toUpperCase()));
-            }
-        }
-        testcaseDetails.put("data", testcaseDetailsdata);
-        Map<String, Object> iconMap = getMapAccordingToSuiteVarianceAndFalsePositive(suiteVarianceIsActive, suiteFalsePositiveIsActive, suiteVarianceIsThere, suiteFalsePositiveIsThere);
-        String finalStatus = "";
         int priority = Integer.MAX_VALUE;
         for (String status : statusesSet) {
             if (StatusColor.valueOf(status.toUpperCase()).priority < priority) {
@@ -566,66 +598,133 @@ public class ReportUtils {
         }
         for (StatusColor val : StatusColor.values()) {
             if (val.priority == priority) {
-                finalStatus = val.name();
+                digest.status = val.name();
             }
         }
-
-        testcaseDetailsHeaders.remove("varianceId");
-        testcaseDetails.put("headers", testcaseDetailsHeaders);
-        getSuite.setStatus(finalStatus);
-        Map<String, Object> testCaseInfo = ReportUtils.testCaseInfoDoughnutChart(statues);
-        if (testCaseInfo != null) {
-            result.put("Testcase Info", testCaseInfo);
+        digest.headers.remove("varianceId");
+        digest.last5RunsBarGraph = ServerTiming.time(ServerTiming.FETCH,
+                () -> ReportUtils.Last5RunsStackedBarChartBySuiteExe(getSuite));
+        digest.testCaseInfo = ReportUtils.testCaseInfoDoughnutChart(statues);
+        digest.categoryBarChart = ReportUtils.categoryStackedBarChartByS_run_id(categoryMap, category);
+        if (!testExes.isEmpty()) {
+            digest.infraHeaders = ReportUtils.createInfraAndUserHeaders(testExes, getSuite, "infraDetails");
+            digest.userDetails = ReportUtils.createInfraAndUserHeaders(testExes, getSuite, "userDetails");
+            digest.executionDetails = ReportUtils.createExecutionDetailsHeaders(testExes);
+            digest.timeDetails = ReportUtils.createTimeReportHeaders(testExes, getSuite);
         }
-        Map<String, Object> CategoryBarChart = ReportUtils.categoryStackedBarChartByS_run_id(categoryMap, category);
-        if (CategoryBarChart != null) {
-            result.put("Category_Bar_Chart", CategoryBarChart);
+        for (TestExeDto testExe : testExes) {
+            // Never shown in the table, dropped so cached digests stay small.
+            testExe.setSteps(null);
+            testExe.setMeta_data(null);
         }
-        result.put("Execution Info", ReportUtils.createExecutionInfoHeaders(getSuite));
-        result.put("Infra Headers", ReportUtils.createInfraAndUserHeaders(tempTest, getSuite, "infraDetails"));
-        result.put("User Details", ReportUtils.createInfraAndUserHeaders(tempTest, getSuite, "userDetails"));
-        result.put("Build Details", ReportUtils.createBuildHeaders(getSuite));
-        result.put("Execution details", ReportUtils.createExecutionDetailsHeaders(tempTest));
-        result.put("Time Details", ReportUtils.createTimeReportHeaders(tempTest,getSuite));
-        result.put("status", getSuite.getStatus());
+        digest.rows = orderByStatus(testExes);
+        return digest;
+    }
 
-        ProjectRoleDto projectRole = RestApiUtils.getProjectRoleByPidAndUsername(project.getPid(), user);
-        if(projectRole!=null) {
-            result.put("Project role", projectRole.getRole());
-        } else {
-            result.put("Project role","ADMIN");
+    /**
+     * Builds one row of the testcase details table of the finished suite report.
+     *
+     * @param testExe
+     * @param varianceList
+     * @param varianceIds
+     * @return Map<String, Object>
+     */
+    private Map<String, Object> createTestcaseRow(TestExeDto testExe, Map<Long, VarianceClassificationDto> varianceList,
+                                                  List<Long> varianceIds) {
+        boolean clickable = false;
+        boolean varianceIsActive = false;
+        boolean varianceIsThere = false;
+        boolean falsePositiveIsActive = false;
+        boolean falsePositiveIsThere = false;
+        if (testExe.getVarianceId() != null || (testExe.getStepVarianceIds() != null && !testExe.getStepVarianceIds().isEmpty())) {
+            varianceIsThere = true;
+            if(varianceList.get(testExe.getVarianceId()) != null) {
+                varianceIsActive = true;
+                clickable = true;
+            }
+            if (ReportUtils.checkoneListContainsElementOfAnotherList(varianceIds, testExe.getStepVarianceIds())) {
+                varianceIsActive = true;
+            }
         }
-
-        List<String> columns = columnMappingService.findColumnMapping(project.getPid(), getSuite.getReport_name(), new ArrayList<>(frameworks));
-        if (columns != null && columns.size() > 0) {
-            List<String> headers = new ArrayList<>();
-            for (String header : testcaseDetailsHeaders) {
-                headers.add(header.replace(" ", "_").toLowerCase());
+        if (testExe.getClassificationDetails() != null) {
+            falsePositiveIsThere = true;
+            if (testExe.getClassificationDetails().isFalsePositiveStatus()) {
+                falsePositiveIsActive = true;
+                clickable = true;
             }
-            List<String> finalHeaders = new ArrayList<>();
-            for (String column : columns) {
-                String value = column.toLowerCase().replace(" ", "_");
-                if (headers.contains(value)) {
-                    finalHeaders.add(value);
-                    headers.remove(value);
-                }
+            if (testExe.getClassificationDetails().isChildFalsePostiveStatus()) {
+                falsePositiveIsActive = true;
             }
-            testcaseDetails.put("headers", finalHeaders);
-            testcaseDetails.put("filterHeaders", headers);
-            testcaseDetails.replace("headers", ReportUtils.headersDataRefactor((List<String>) testcaseDetails.get("headers")));
-            testcaseDetails.replace("filterHeaders", ReportUtils.headersDataRefactor((List<String>) testcaseDetails.get("filterHeaders")));
-            result.put("TestCase_Details", testcaseDetails);
-            result.put("totalElements", getSuite.getTestcase_details().size());
+        }
+        LinkedHashMap<String, Object> map = TestExeProjection.SUITE_REPORT.project(testExe);
+        Map<String, Object> temp = new HashMap<>();
+        for (String key : map.keySet()) {
+            populateTempAccordingToKey(key, temp, map, Cell.SUBTYPE_FALSE_VARIANCE);
+        }
 
-            return new Response(result, DATA_FETCHED_SUCCESSFULLY, Success);
+        populateIconProperties(testExe, temp, clickable, varianceIsActive, falsePositiveIsActive, varianceIsThere, falsePositiveIsThere);
+
+        temp.put("TC_RUN_ID", ReportUtils.createCustomObject(testExe.getTc_run_id(), "text", testExe.getTc_run_id(), "left"));
+        temp.put("VARIANCEID", ReportUtils.createCustomObject(testExe.getVarianceId(), "text", testExe.getVarianceId(), "left"));
+        return temp;
+    }
+
+    /**
+     * Orders test exes by status priority, keeping the fetched order within a status. Test exes with a status
+     * outside {@link StatusColor} are left out, as the report table always did.
+     *
+     * @param testExes
+     * @return List<TestExeDto>
+     */
+    private static List<TestExeDto> orderByStatus(List<TestExeDto> testExes) {
+        Map<String, List<TestExeDto>> testExesByStatus = new HashMap<>();
+        for (TestExeDto testExe : testExes) {
+            testExesByStatus.computeIfAbsent(testExe.getStatus().toUpperCase(), status -> new ArrayList<>()).add(testExe);
+        }
+        List<TestExeDto> ordered = new ArrayList<>(testExes.size());
+        for (StatusColor statusColor : ReportUtils.getStatusColorInSorted()) {
+            ordered.addAll(testExesByStatus.getOrDefault(statusColor.toString().toUpperCase(), List.of()));
         }
+        return ordered;
+    }
 
-        List<String> data = new ArrayList<>((Set<String>) testcaseDetails.get("headers"));
-        testcaseDetails.replace("headers", ReportUtils.headersDataRefactor(data));
-        result.put("TestCase_Details", testcaseDetails);
-        result.put("totalElements", getSuite.getTestcase_details().size());
+    /**
+     * Fetches the test exes of a suite from the insertion manager, sorted the way the report asked for.
+     *
+     * @param s_run_id
+     * @param sort
+     * @param sortedColumn
+     * @return List<TestExeDto>
+     */
+    private static List<TestExeDto> fetchTestExes(String s_run_id, Integer sort, String sortedColumn) {
+        List<TestExeDto> testExes = ServerTiming.time(ServerTiming.FETCH,
+                () -> RestApiUtils.fetchTestExes(s_run_id, sort, sortedColumn));
+        if (testExes.isEmpty()) {
+            log.error("Error occurred due to records not found");
+            throw new CustomDataException(TESTCASE_DETAILS_NOT_FOUND, null, Failure, HttpStatus.OK);
+        }
+        return testExes;
+    }
 
-        return new Response(result, DATA_FETCHED_SUCCESSFULLY, Success);
+    /**
+     * The suite wide part of the finished suite report together with its rows in display order. Pages are slices
+     * of a cached digest: the insertion manager has no paged test exe query, and the status order of the rows
+     * depends on active variances applied here, so the digest is built from every test exe of the suite. The first
+     * page after report.action.digest-ttl-ms therefore costs as much as the whole suite; later pages only slice it.
+     */
+    private static final class SuiteReportDigest {
+
+        private List<TestExeDto> rows;
+        private final Set<String> headers = new LinkedHashSet<>();
+        private final Set<String> frameworks = new HashSet<>();
+        private String status = "";
+        private Map<String, Object> last5RunsBarGraph;
+        private Map<String, Object> testCaseInfo;
+        private Map<String, Object> categoryBarChart;
+        private Object infraHeaders;
+        private Object userDetails;
+        private Object executionDetails;
+        private Object timeDetails;
     }
 
     public static Object createTimeReportHeaders(List<TestExeDto> testcaseList, SuiteExeDto getSuite) {
@@ -840,6 +939,9 @@ public class ReportUtils {
         boolean suiteVarianceIsThere = false;
         boolean suiteFalsePositiveIsActive = false;
         boolean suiteFalsePositiveIsThere = false;
+        Map<String, StepsDto> stepsByTc_run_id = getStepsForActiveStepVariances(tempTest, varianceIds);
+        testcaseDetailsHeaders.remove("classificationDetails");
+        testcaseDetailsHeaders.remove("stepVarianceIds");
         for (TestExeDto testExe : tempTest) {
             boolean clickable = false;
             boolean varianceIsActive = false;
@@ -858,7 +960,7 @@ public class ReportUtils {
                 if (ReportUtils.checkoneListContainsElementOfAnotherList(varianceIds, testExe.getStepVarianceIds())) {
                     varianceIsActive = true;
                     suiteVarianceIsActive = true;
-                    testExe.setStatus(ReportUtils.checkStatusOfTestCaseByStepsIfVarianceIsThere(testExe.getTc_run_id(), varianceList));
+                    testExe.setStatus(ReportUtils.checkStatusOfTestCaseByStepsIfVarianceIsThere(stepsByTc_run_id.get(testExe.getTc_run_id()), varianceList));
                 }
             }
             if (testExe.getClassificationDetails() != null) {
@@ -874,31 +976,8 @@ public class ReportUtils {
                     falsePositiveIsActive = true;
                 }
             }
-            ObjectMapper oMapper = new ObjectMapper();
-            LinkedHashMap<String, Object> map = oMapper.convertValue(testExe, LinkedHashMap.class);
-            if (testExe.getUser_defined_data() != null) {
-                map.putAll(testExe.getUser_defined_data());
-            }
-            map.remove("user_defined_data");
-            map.remove("steps");
-            map.remove("meta_data");
-            map.remove("ignore");
-            map.remove("log_file");
-            map.remove("result_file");
-            map.remove("s_run_id");
-            map.remove("tc_run_id");
-            map.remove("job_name");
-            map.remove("classificationDetails");
-            map.remove("varianceId");
-            map.remove("stepVarianceIds");
-            map.remove("testcase_id");
-            map.remove("job_name");
-            testcaseDetailsHeaders.remove("classificationDetails");
-            testcaseDetailsHeaders.remove("stepVarianceIds");
+            LinkedHashMap<String, Object> map = TestExeProjection.LIVE_REPORT.project(testExe);
             testcaseDetailsHeaders.addAll(map.keySet());
-
-
-            testcaseDetails.put("headers", testcaseDetailsHeaders);
             Map<String, Object> temp = new HashMap<>();
 
             for (String key : map.keySet()) {
@@ -934,10 +1013,10 @@ public class ReportUtils {
         testcaseDetails.put("data", testcaseDetailsData);
         testcaseDetails.put("headers", testcaseDetailsHeaders);
 
-        Map<String, Object> response = RestApiUtils.getCountByStatusList(statuses,getSuite.getS_run_id());
-        ObjectMapper om = new ObjectMapper();
-        Map<String, Long> testcaseInfo = om.convertValue(response.get("testcaseInfo"), new TypeReference<>() {});
-        expectedStatus = om.convertValue(response.get("expectedStatus"), new TypeReference<>() {});
+        Map<String, Object> response = ServerTiming.time(ServerTiming.FETCH,
+                () -> RestApiUtils.getCountByStatusList(statuses, getSuite.getS_run_id()));
+        Map<String, Long> testcaseInfo = mapper.convertValue(response.get("testcaseInfo"), new TypeReference<>() {});
+        expectedStatus = mapper.convertValue(response.get("expectedStatus"), new TypeReference<>() {});
 
         if (expectedStatus.equalsIgnoreCase("EXE")) {
             expectedStatus = "PASS";
@@ -951,7 +1030,8 @@ public class ReportUtils {
                 getSuite.getExpected_testcases() != null ? getSuite.getExpected_testcases() : 0);
         testcaseProgress.put("executed", testcaseCountWithoutExe);
 
-        SuiteRun suiteRunData = RestApiUtils.getSuiteRun(getSuite.getS_run_id());
+        SuiteRun suiteRunData = ServerTiming.time(ServerTiming.FETCH,
+                () -> RestApiUtils.getSuiteRun(getSuite.getS_run_id()));
         List<List<DependencyTree>> ans = new ArrayList<>();
         assert suiteRunData != null;
         for (SuiteRunValues suiteRunValues : suiteRunData.getValues()) {
@@ -963,7 +1043,7 @@ public class ReportUtils {
         exeData.put("expected_status", expectedStatusMap);
 
         exeData.put("expected_completion",
-                Math.round(RestApiUtils.getTimeRemainingNew(getSuite, ans)));
+                Math.round(ServerTiming.time(ServerTiming.FETCH, () -> RestApiUtils.getTimeRemainingNew(getSuite, ans))));
         result.put("Infra Headers", ReportUtils.createInfraAndUserHeaders(tempTest, getSuite, "infraDetails"));
         result.put("User Details", ReportUtils.createInfraAndUserHeaders(tempTest, getSuite, "userDetails"));
         result.put("Execution details", ReportUtils.createExecutionDetailsHeaders(tempTest));
@@ -1025,7 +1105,7 @@ public class ReportUtils {
      */
     public static UserDto getUserDtoFromServetRequest() {
         String username = getUsernameFromServletRequest();
-        UserDto userDto = getUsernameAndIsDeleted(username, false);
+        UserDto userDto = LookupCache.getUser(username, () -> getUsernameAndIsDeleted(username, false));
         if (userDto == null) {
             log.error("Error occurred while trying to fetch user for username: {}", username);
             throw new CustomDataException(USER_DETAILS_NOT_FOUND, null, Failure, HttpStatus.NOT_ACCEPTABLE);
@@ -1094,15 +1174,10 @@ public class ReportUtils {
      * @param type
      * @param sortValue
      * @param align
-     * @return map
+     * @return Cell
      */
-    public static Map<String, Object> createCustomObject(Object value, String type, Object sortValue, String align) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("value", value);
-        result.put("type", type);
-        result.put("sortValue", sortValue);
-        result.put("align", align);
-        return result;
+    public static Cell createCustomObject(Object value, String type, Object sortValue, String align) {
+        return new Cell(value, type, sortValue, align);
     }
 
     /**
@@ -1113,16 +1188,10 @@ public class ReportUtils {
      * @param sortValue
      * @param align
      * @param map
-     * @return map
+     * @return Cell
      */
-    public static Map<String, Object> createCustomObject(Object value, String type, Object sortValue, String align, Map<String, Object> map) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("value", value);
-        result.put("type", type);
-        result.put("sortValue", sortValue);
-        result.put("align", align);
-        result.putAll(map);
-        return result;
+    public static Cell createCustomObject(Object value, String type, Object sortValue, String align, Map<String, Object> map) {
+        return new Cell(value, type, sortValue, align, map);
     }
 
     public static Map<String, String> getSuiteColumnName() {
@@ -1146,26 +1215,8 @@ public class ReportUtils {
     }
 
     public static ProjectRoleDto getActiveProjectRole(Long pid, String username) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
-        Map<String, Object> uriVariables = new HashMap<>();
-        String url = projectManagerUrl + "/v2/project/role/entity?pid={pid}&userName={username}&status=ACTIVE";
-        uriVariables.put("username", username);
-        uriVariables.put("pid", pid);
-        ProjectRoleDto projectRole;
-        try {
-            ResponseEntity response = restTemplate.exchange(url, HttpMethod.GET, httpEntity, Object.class,
-                    uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new com.google.gson.reflect.TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new com.google.gson.reflect.TypeToken<ProjectRoleDto>() {
-            }.getType();
-            projectRole = gson.fromJson(gson.toJson(data), type);
-        } catch (HttpClientErrorException.NotFound ex) {
+        ProjectRoleDto projectRole = RestApiUtils.getProjectRoleEntity(pid, username, ACTIVE_STATUS);
+        if (projectRole == null) {
             log.warn("Project Role details not found for username: {}", username);
             return null;
         }
@@ -1508,28 +1559,50 @@ public class ReportUtils {
     }
 
     public static long getDownTimeForSuiteExe(List<SuiteExeDto> suites) {
+        return getDownTime(getDownTimeSinceForSuiteExe(suites), new Date().getTime());
+    }
+
+    /**
+     * Returns the start time of the oldest run in the current streak of non passing runs, null when the latest
+     * run passed.
+     *
+     * @param suites - sorted latest first
+     * @return Long
+     */
+    public static Long getDownTimeSinceForSuiteExe(List<SuiteExeDto> suites) {
         if (suites.get(0).getStatus().equalsIgnoreCase("PASS")) {
-            return 0;
-        } else {
-            SuiteExeDto prev = null;
-            long firstFailTime = 0;
-            for (SuiteExeDto suite : suites) {
-                if (suite.getStatus().equalsIgnoreCase("PASS")) {
-                    break;
-                }
-                prev = suite;
-            }
-            if (prev != null) {
-                firstFailTime = prev.getS_start_time();
+            return null;
+        }
+        SuiteExeDto prev = null;
+        long firstFailTime = 0;
+        for (SuiteExeDto suite : suites) {
+            if (suite.getStatus().equalsIgnoreCase("PASS")) {
+                break;
             }
+            prev = suite;
+        }
+        if (prev != null) {
+            firstFailTime = prev.getS_start_time();
+        }
+        return firstFailTime;
+    }
 
-            Date d = new Date();
-            long downTime = (d.getTime() - firstFailTime) / 1000;
-            if (downTime < 0) {
-                return 0;
-            }
-            return downTime;
+    /**
+     * Returns the downtime in seconds at now for a streak that started at downTimeSince.
+     *
+     * @param downTimeSince
+     * @param now
+     * @return long
+     */
+    public static long getDownTime(Long downTimeSince, long now) {
+        if (downTimeSince == null) {
+            return 0;
+        }
+        long downTime = (now - downTimeSince) / 1000;
+        if (downTime < 0) {
+            return 0;
         }
+        return downTime;
     }
 
     public static int stabilityIndex(double brokenIndex) {
@@ -1646,7 +1719,7 @@ public class ReportUtils {
         testExeDiagnose.setMiscData((List<Map<String, Object>>) testExe.get("miscData"));
         testExeDiagnose.setUserDefinedData((Map<String, Object>) testExe.get("userDefinedData"));
         testExeDiagnose.setS_run_id((String) testExe.get("s_run_id"));
-        testExeDiagnose.setP_id(((Double)suiteExe.get("p_id")).longValue());
+        testExeDiagnose.setP_id(((Number) suiteExe.get("p_id")).longValue());
         return testExeDiagnose;
     }
 
@@ -1684,6 +1757,37 @@ public class ReportUtils {
 
     public static double getScore(double brokenIndex, long downTime, long averageFixTime, String env,
                                   List<SuiteExeDto> suiteExeList) {
+        long count = 0;
+        List<String> sRunIdsList = new ArrayList<>();
+        for (SuiteExeDto suiteExe : suiteExeList) {
+            sRunIdsList.add(suiteExe.getS_run_id());
+            if (suiteExe.getStatus().equalsIgnoreCase("FAIL") || suiteExe.getStatus().equalsIgnoreCase("ERR")) {
+                count++;
+            }
+        }
+        Map<String, Double> testCaseCountMap = RestApiUtils.getTestCaseCount(sRunIdsList, List.of("ERR", "FAIL"));
+        double totalTestCaseCount = testCaseCountMap.get("totalTestCaseCount");
+        double failTestCaseCount = testCaseCountMap.get("testCaseCountWithStatus");
+        return getScore(brokenIndex, downTime, averageFixTime, env, suiteExeList.size(), count, totalTestCaseCount,
+                failTestCaseCount);
+    }
+
+    /**
+     * Returns the app stability score from precomputed counts.
+     *
+     * @param brokenIndex
+     * @param downTime
+     * @param averageFixTime
+     * @param env
+     * @param suiteCount
+     * @param failedSuiteCount - suites with status FAIL or ERR
+     * @param totalTestCaseCount
+     * @param failTestCaseCount - test cases with status FAIL or ERR
+     * @return double
+     */
+    public static double getScore(double brokenIndex, long downTime, long averageFixTime, String env,
+                                  long suiteCount, long failedSuiteCount, double totalTestCaseCount,
+                                  double failTestCaseCount) {
         double averageFixTimeScore = 25;
         double downTimeScore = 15;
         double averageFixTimeCount = 0;
@@ -1708,17 +1812,7 @@ public class ReportUtils {
         if (downTimeScore < 0) {
             downTimeScore = 0;
         }
-        double count = 0;
-        List<String> sRunIdsList = new ArrayList<>();
-        for (SuiteExeDto suiteExe : suiteExeList) {
-            sRunIdsList.add(suiteExe.getS_run_id());
-            if (suiteExe.getStatus().equalsIgnoreCase("FAIL") || suiteExe.getStatus().equalsIgnoreCase("ERR")) {
-                count++;
-            }
-        }
-        Map<String, Double> testCaseCountMap = RestApiUtils.getTestCaseCount(sRunIdsList, List.of("ERR", "FAIL"));
-        double totalTestCaseCount = testCaseCountMap.get("totalTestCaseCount");
-        double failTestCaseCount = testCaseCountMap.get("testCaseCountWithStatus");;
+        double count = failedSuiteCount;
         if (totalTestCaseCount > 0) {
             testCaseScore = testCaseScore - ((failTestCaseCount / totalTestCaseCount) * 15);
         } else {
@@ -1728,8 +1822,8 @@ public class ReportUtils {
             testCaseScore = 0;
         }
 
-        if (!suiteExeList.isEmpty()) {
-            suiteScore = suiteScore - ((count / suiteExeList.size()) * 10);
+        if (suiteCount > 0) {
+            suiteScore = suiteScore - ((count / suiteCount) * 10);
         } else {
             suiteScore = 0;
         }
@@ -1746,49 +1840,6 @@ public class ReportUtils {
         return (brokenIndexWeight + downTimeWeight + averageFixTimeWeight + suiteTestCaseWeight + suiteWeight);
     }
 
-    public static long getStatusWiseCount(String s_run_id, String status) {
-        Query query = new Query();
-        List<Criteria> criteria = new ArrayList<Criteria>();
-        criteria.add(Criteria.where("s_run_id").is(s_run_id));
-        if (status.equalsIgnoreCase("OTHER")) {
-            List<String> statuses = new ArrayList<String>();
-            Collections.addAll(statuses, "PASS", "FAIL");
-            criteria.add(Criteria.where("status").not().in(statuses));
-        } else if (!(status.equalsIgnoreCase("TOTAL"))) {
-            criteria.add(Criteria.where("status").is(status));
-        } else {
-
-        }
-        query.addCriteria(new Criteria().andOperator(criteria.toArray(new Criteria[criteria.size()])));
-
-        long count = mongoOperations.count(query, TestExeDto.class);
-        return count;
-    }
-
-    public Map<String, Long> getStatusWiseCountReportName(String report_name, long starttime, long endtime) {
-        Map<String, Long> res = new HashMap<String, Long>();
-        Query query = new Query();
-        List<Criteria> criteria = new ArrayList<Criteria>();
-        criteria.add(Criteria.where("report_name").is(report_name));
-        criteria.add(Criteria.where("start_time").gt(starttime));
-        criteria.add(Criteria.where("end_time").lt(endtime));
-
-        List<String> distinctStatus = mongoOperations.findDistinct(query, "status", TestExeCommonDto.class, String.class);
-        for (String status : distinctStatus) {
-            Query queryStatus = new Query();
-            List<Criteria> criteriaStatus = new ArrayList<Criteria>();
-            criteriaStatus.add(Criteria.where("report_name").is(report_name));
-            criteriaStatus.add(Criteria.where("start_time").gt(starttime));
-            criteriaStatus.add(Criteria.where("end_time").lt(endtime));
-            criteriaStatus.add(Criteria.where("status").is(status));
-            queryStatus.addCriteria(new Criteria().andOperator(criteriaStatus.toArray(new Criteria[criteria.size()])));
-            res.put(status.toUpperCase(), mongoOperations.count(queryStatus, TestExeCommonDto.class));
-
-        }
-
-        return res;
-    }
-
     public List<String> getDistinctStatusFromSRunId(String sRunId) {
         Query distinctStatus = new Query();
         distinctStatus.addCriteria(Criteria.where("s_run_id").is(sRunId));
@@ -1886,8 +1937,19 @@ public class ReportUtils {
 
     public static String checkStatusOfTestCaseByStepsIfVarianceIsThere(String tc_run_id,
                                                                        Map<Long, VarianceClassificationDto> data) {
-        StepsDto steps = RestApiUtils.getSteps(tc_run_id);
-        if (steps.getSteps().size() == 0) {
+        return checkStatusOfTestCaseByStepsIfVarianceIsThere(RestApiUtils.getSteps(tc_run_id), data);
+    }
+
+    /**
+     * Returns the status of a test case from already fetched steps, counting steps with an active variance as PASS.
+     *
+     * @param steps
+     * @param data
+     * @return String
+     */
+    public static String checkStatusOfTestCaseByStepsIfVarianceIsThere(StepsDto steps,
+                                                                       Map<Long, VarianceClassificationDto> data) {
+        if (steps == null || steps.getSteps().size() == 0) {
             return "PASS";
         }
         Set<String> statues = new HashSet<>();
@@ -1923,6 +1985,53 @@ public class ReportUtils {
 
     }
 
+    /**
+     * Fetches the steps of every test exe whose status depends on an active step variance. The calls run
+     * concurrently on the fan-out executor instead of one after another inside the render loop.
+     *
+     * @param testExes
+     * @param varianceIds
+     * @return Map<String, StepsDto>
+     */
+    public static Map<String, StepsDto> getStepsForActiveStepVariances(List<TestExeDto> testExes, List<Long> varianceIds) {
+        Map<String, CompletableFuture<StepsDto>> futures = new LinkedHashMap<>();
+        for (TestExeDto testExe : testExes) {
+            if (testExe.getStepVarianceIds() != null
+                    && checkoneListContainsElementOfAnotherList(varianceIds, testExe.getStepVarianceIds())) {
+                futures.computeIfAbsent(testExe.getTc_run_id(),
+                        tc_run_id -> FanOutUtils.supplyAsync(() -> RestApiUtils.getSteps(tc_run_id)));
+            }
+        }
+        return ServerTiming.time(ServerTiming.FETCH, () -> {
+            Map<String, StepsDto> steps = new HashMap<>();
+            futures.forEach((tc_run_id, future) -> steps.put(tc_run_id, FanOutUtils.join(future)));
+            return steps;
+        });
+    }
+
+    /**
+     * Sets the status of each test exe to the one the suite report shows: PASS when its variance is active, or the
+     * status of its steps when one of its step variances is active.
+     *
+     * @param testExes
+     * @param varianceList
+     * @param varianceIds
+     */
+    public static void applyActiveVariances(List<TestExeDto> testExes, Map<Long, VarianceClassificationDto> varianceList,
+                                            List<Long> varianceIds) {
+        Map<String, StepsDto> stepsByTc_run_id = getStepsForActiveStepVariances(testExes, varianceIds);
+        for (TestExeDto testExe : testExes) {
+            if (testExe.getVarianceId() != null && varianceList.get(testExe.getVarianceId()) != null) {
+                testExe.setStatus("PASS");
+            }
+            if (testExe.getStepVarianceIds() != null
+                    && checkoneListContainsElementOfAnotherList(varianceIds, testExe.getStepVarianceIds())) {
+                testExe.setStatus(checkStatusOfTestCaseByStepsIfVarianceIsThere(
+                        stepsByTc_run_id.get(testExe.getTc_run_id()), varianceList));
+            }
+        }
+    }
+
     public static boolean checkoneListContainsElementOfAnotherList(List<Long> mainList, List<Long> list) {
         for (Long value : list) {
             if (mainList.contains(value)) {
@@ -2067,7 +2176,61 @@ public class ReportUtils {
         return map;
     }
 
+    /**
+     * Loads the test exes of all given s_run_ids in batches of report.testexe.batch-size and indexes them by
+     * s_run_id. The batches are fetched concurrently, s_run_ids without test exes are absent from the map.
+     *
+     * @param sRunIds
+     * @return Map<String, List<TestExeDto>>
+     */
+    public static Map<String, List<TestExeDto>> getTestExesGroupedByS_run_id(Collection<String> sRunIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(sRunIds));
+        List<CompletableFuture<List<TestExeDto>>> futures = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += testExeBatchSize) {
+            List<String> batch = new ArrayList<>(ids.subList(from, Math.min(from + testExeBatchSize, ids.size())));
+            futures.add(FanOutUtils.supplyAsync(() -> RestApiUtils.getTestExeListForS_run_ids(batch)));
+        }
+        Map<String, List<TestExeDto>> testExesByS_run_id = new HashMap<>();
+        for (List<TestExeDto> testExes : FanOutUtils.joinAll(futures)) {
+            groupByS_run_id(testExes, testExesByS_run_id);
+        }
+        return testExesByS_run_id;
+    }
+
+    /**
+     * Groups already loaded test exes by s_run_id in one pass, keeping their order within each run.
+     *
+     * @param testExes
+     * @return Map<String, List<TestExeDto>>
+     */
+    public static Map<String, List<TestExeDto>> groupByS_run_id(List<TestExeDto> testExes) {
+        return groupByS_run_id(testExes, new HashMap<>());
+    }
+
+    private static Map<String, List<TestExeDto>> groupByS_run_id(List<TestExeDto> testExes,
+                                                                 Map<String, List<TestExeDto>> testExesByS_run_id) {
+        for (TestExeDto testExe : testExes) {
+            testExesByS_run_id.computeIfAbsent(testExe.getS_run_id(), k -> new ArrayList<>()).add(testExe);
+        }
+        return testExesByS_run_id;
+    }
+
     public static Map<String, Object> last5SuiteRuns(List<SuiteExeDto> getAllSuites) {
+        List<String> sRunIds = getAllSuites.stream().limit(5).map(SuiteExeDto::getS_run_id)
+                .collect(Collectors.toList());
+        return last5SuiteRuns(getAllSuites, getTestExesGroupedByS_run_id(sRunIds));
+    }
+
+    /**
+     * Creates the last 5 runs stacked bar chart from test exes that were already loaded by
+     * {@link #getTestExesGroupedByS_run_id(Collection)}.
+     *
+     * @param getAllSuites
+     * @param testExesByS_run_id
+     * @return Map<String, Object>
+     */
+    public static Map<String, Object> last5SuiteRuns(List<SuiteExeDto> getAllSuites,
+                                                     Map<String, List<TestExeDto>> testExesByS_run_id) {
         List<SuiteExeDto> suiteExes = new ArrayList<>();
         suiteExes.addAll(getAllSuites);
         // Collections.sort(suiteExes,new TimeComparator());
@@ -2087,7 +2250,7 @@ public class ReportUtils {
                     suiteFailCount++;
                 }
 //                Query query1 = new Query(Criteria.where("s_run_id").is(suiteExe.getS_run_id()));
-                List<TestExeDto> testExeList = RestApiUtils.getTestExeList(suiteExe.getS_run_id());
+                List<TestExeDto> testExeList = testExesByS_run_id.getOrDefault(suiteExe.getS_run_id(), List.of());
                 Map<String, Long> statusMap = new HashMap<>();
                 for (StatusColor statusColor : StatusColor.values()) {
                     statusMap.put(statusColor.toString(), 0L);
@@ -2209,7 +2372,26 @@ public class ReportUtils {
             return null;
         }
         List<String> sRunIds = getAllSuites.stream().map(SuiteExeDto::getS_run_id).collect(Collectors.toList());
-        List<TestExeDto> testExeList = RestApiUtils.getTestExeListForS_run_ids(sRunIds);
+        return culprit(getAllSuites, getTestExesGroupedByS_run_id(sRunIds));
+    }
+
+    /**
+     * Finds the most failing test cases of the suites from test exes that were already loaded by
+     * {@link #getTestExesGroupedByS_run_id(Collection)}.
+     *
+     * @param getAllSuites
+     * @param testExesByS_run_id
+     * @return Map<String, Long>
+     */
+    public static Map<String, Long> culprit(List<SuiteExeDto> getAllSuites,
+                                            Map<String, List<TestExeDto>> testExesByS_run_id) {
+        if (getAllSuites.isEmpty()) {
+            return null;
+        }
+        List<TestExeDto> testExeList = new ArrayList<>();
+        for (String sRunId : getAllSuites.stream().map(SuiteExeDto::getS_run_id).collect(Collectors.toSet())) {
+            testExeList.addAll(testExesByS_run_id.getOrDefault(sRunId, List.of()));
+        }
         Map<String, Long> totalCountMap = new HashMap<>();
         Map<String, Long> failCountMap = new HashMap<>();
         Map<String, Long> finalMap = new HashMap<>();
@@ -2259,10 +2441,6 @@ public class ReportUtils {
         double falsePositive = 0;
 
         for (SuiteExeDto suiteExe : getAllSuites) {
-
-            if (suiteExe.getS_run_id().equalsIgnoreCase("TEST-PROJECT_Beta_ce3192d6-9634-424c-97bc-d08caf344401")) {
-                System.out.println("truuuuuu");
-            }
             sRunIdsList.add(suiteExe.getS_run_id());
             if (suiteExe.getStatus().equalsIgnoreCase("ERR")) {
                 suiteErrCount++;
@@ -2274,28 +2452,34 @@ public class ReportUtils {
             }
         }
 
-//        Query errTestCasesCountQuery = new Query(
-//                Criteria.where("status").in("ERR").and("s_run_id").in(sRunIdsList));
-//        Query testCaseCountQuery = new Query(Criteria.where("s_run_id").in(sRunIdsList));
-//
-//        Query falsePositiveCountQuery = new Query(
-//                Criteria.where("classificationDetails.childFalsePostiveStatus").is(true).and("s_run_id")
-//                        .in(sRunIdsList));
-
-//        double totalTestCaseCount = mongoOperations.count(testCaseCountQuery, TestExeDto.class);
-//        double errTestCaseCount = mongoOperations.count(errTestCasesCountQuery, TestExeDto.class);
-
-//        double falsePositiveTestCount = mongoOperations.count(falsePositiveCountQuery, TestExeDto.class);
         Map<String, Double> testCaseCountMap = RestApiUtils.getTestCaseCount(sRunIdsList, List.of("ERR"));
         double totalTestCaseCount = testCaseCountMap.get("totalTestCaseCount");
         double errTestCaseCount = testCaseCountMap.get("testCaseCountWithStatus");
         double falsePositiveTestCount = testCaseCountMap.get("falsePositiveTestCaseCount");
 
-        double finalSuiteScore = (((999 * 0.5) * (getAllSuites.size() - suiteErrCount)) / getAllSuites.size());
+        return getQAScore(getAllSuites.size(), suiteErrCount, falsePositive, totalTestCaseCount, errTestCaseCount,
+                falsePositiveTestCount);
+    }
+
+    /**
+     * Returns the automation stability score from precomputed counts.
+     *
+     * @param suiteCount
+     * @param suiteErrCount
+     * @param falsePositive - suites with a false positive child
+     * @param totalTestCaseCount
+     * @param errTestCaseCount
+     * @param falsePositiveTestCount
+     * @return double
+     */
+    public static double getQAScore(long suiteCount, double suiteErrCount, double falsePositive,
+                                    double totalTestCaseCount, double errTestCaseCount,
+                                    double falsePositiveTestCount) {
+        double finalSuiteScore = (((999 * 0.5) * (suiteCount - suiteErrCount)) / suiteCount);
         double finalTestcaseScore = ((((999 * 0.5) * (totalTestCaseCount - errTestCaseCount)) / totalTestCaseCount));
 
         if (falsePositive != 0.0) {
-            double falsePercentage = (getAllSuites.size() * falsePositive) / 100;
+            double falsePercentage = (suiteCount * falsePositive) / 100;
             finalSuiteScore = finalSuiteScore - (399.6 * falsePercentage) / 100;
         }
         if (falsePositiveTestCount != 0.0) {
@@ -2347,12 +2531,10 @@ public class ReportUtils {
         data.put("Project Name", createCustomObject(StringUtils.capitalize(getSuite.getProject_name()), "text", getSuite.getProject_name(), "center"));
         data.put("Env", createCustomObject(StringUtils.capitalize(getSuite.getEnv()), "text", getSuite.getEnv(), "center"));
         data.put("Report Name", createCustomObject(StringUtils.capitalize(getSuite.getReport_name()), "text", getSuite.getReport_name(), "center"));
-        Map<String, Object> timereport = new HashMap<>();
-        timereport.put("subType", "datetime");
-        data.put("Start Time", createCustomObject(getSuite.getS_start_time(), "date", getSuite.getS_start_time(), "center", timereport));
+        data.put("Start Time", createCustomObject(getSuite.getS_start_time(), "date", getSuite.getS_start_time(), "center", Cell.SUBTYPE_DATETIME));
         if (getSuite.getS_end_time() != 0) {
 
-            data.put("End Time", createCustomObject(getSuite.getS_end_time(), "date", getSuite.getS_end_time(), "center", timereport));
+            data.put("End Time", createCustomObject(getSuite.getS_end_time(), "date", getSuite.getS_end_time(), "center", Cell.SUBTYPE_DATETIME));
             data.put("Duration", createCustomObject(getDuration(getSuite.getS_start_time(), getSuite.getS_end_time()), "text", ((float) (getSuite.getS_end_time() - getSuite.getS_start_time()) / 1000), "center"));
         } else {
             data.put("End Time", createCustomObject("-", "text", getSuite.getS_end_time(), "center"));
@@ -2440,6 +2622,15 @@ public class ReportUtils {
         return result;
     }
 
+    /**
+     * Returns the stacked bar chart of the last five runs with the report name and env of the suite. The active
+     * variances of the five runs are read with one insertion manager call and their statuses are counted by one
+     * aggregation on the testExe collection, grouped per run, status and varianceId. Test exes with step variances
+     * are grouped by tc_run_id so their steps can be checked.
+     *
+     * @param getSuite
+     * @return Map<String, Object>
+     */
     public static Map<String, Object> Last5RunsStackedBarChartBySuiteExe(SuiteExeDto getSuite) {
         Query barChartQuery = new Query(Criteria.where("report_name").is(getSuite.getReport_name())
                 .andOperator(Criteria.where("env").is(getSuite.getEnv())));
@@ -2447,7 +2638,8 @@ public class ReportUtils {
         Sort.Order barChartOrder = new Sort.Order(Sort.Direction.DESC, "s_start_time");
         barChartQuery.with(barChartPageable);
         barChartQuery.with(Sort.by(barChartOrder));
-        List<SuiteExeDto> suiteExes = mongoOperations.find(barChartQuery, SuiteExeDto.class);
+        barChartQuery.fields().include("s_run_id", "s_start_time", "varianceIds");
+        List<SuiteExeDto> suiteExes = mongoOperations.find(barChartQuery, SuiteExeDto.class, SUITE_EXE_COLLECTION);
         if (suiteExes.size() > 0) {
             List<Long> passCount = new ArrayList<>();
             List<Long> failCount = new ArrayList<>();
@@ -2456,103 +2648,122 @@ public class ReportUtils {
             List<Long> errCount = new ArrayList<>();
             List<Long> exeCount = new ArrayList<>();
             List<Long> labels = new ArrayList<>();
+
+            List<String> s_run_ids = new ArrayList<>();
+            Set<Long> suiteVarianceIds = new HashSet<>();
             for (SuiteExeDto suiteExe : suiteExes) {
-                Query varianceQuery = new Query(Criteria.where("varianceId").in(suiteExe.getVarianceIds())
-                        .and("varianceStatus").is("ACTIVE").and("endDate").gt(new Date().getTime()));
-                List<VarianceClassificationDto> varianceClassificationList = mongoOperations.find(varianceQuery,
-                        VarianceClassificationDto.class);
-                Map<Long, VarianceClassificationDto> variannceList = new HashMap<>();
-                List<Long> varinaceIds = new ArrayList<>();
-                for (VarianceClassificationDto varianceClassification : varianceClassificationList) {
-                    varinaceIds.add(varianceClassification.getVarianceId());
-                    variannceList.put(varianceClassification.getVarianceId(), varianceClassification);
+                s_run_ids.add(suiteExe.getS_run_id());
+                if (suiteExe.getVarianceIds() != null) {
+                    suiteVarianceIds.addAll(suiteExe.getVarianceIds());
                 }
-                Query query1 = new Query(Criteria.where("s_run_id").is(suiteExe.getS_run_id()));
-                List<TestExeDto> testExeList = mongoOperations.find(query1, TestExeDto.class);
-                Map<String, Long> statusMap = new HashMap<>();
-                for (StatusColor statusColor : StatusColor.values()) {
-                    statusMap.put(statusColor.toString(), 0L);
+            }
+            Map<Long, VarianceClassificationDto> activeVariances = new HashMap<>();
+            if (!suiteVarianceIds.isEmpty()) {
+                long now = new Date().getTime();
+                for (VarianceClassificationDto varianceClassification : RestApiUtils.getVarianceClassificationList(
+                        suiteVarianceIds, ACTIVE_STATUS)) {
+                    if (varianceClassification.getEndDate() != null && varianceClassification.getEndDate() > now) {
+                        activeVariances.put(varianceClassification.getVarianceId(), varianceClassification);
+                    }
                 }
-                long totalCount = 0L;
-                for (TestExeDto testExe : testExeList) {
-                    if (testExe.getVarianceId() != null
-                            || (testExe.getStepVarianceIds() != null && testExe.getStepVarianceIds().size() > 0)
-                            || testExe.getClassificationDetails() != null) {
-                        if (testExe.getVarianceId() != null
-                                || (testExe.getStepVarianceIds() != null && testExe.getStepVarianceIds().size() > 0)) {
-                            VarianceClassificationDto varianceClassification = variannceList
-                                    .getOrDefault(testExe.getVarianceId(), null);
-                            if (varianceClassification != null) {
-                                testExe.setStatus("PASS");
-                            }
-                            if (checkoneListContainsElementOfAnotherList(varinaceIds,
-                                    testExe.getStepVarianceIds())) {
-                                testExe.setStatus(checkStatusOfTestCaseByStepsIfVarianceIsThere(
-                                        testExe.getTc_run_id(), variannceList));
-                            }
+            }
+            Map<String, Map<Long, VarianceClassificationDto>> variancesByS_run_id = new HashMap<>();
+            for (SuiteExeDto suiteExe : suiteExes) {
+                Map<Long, VarianceClassificationDto> variannceList = new HashMap<>();
+                if (suiteExe.getVarianceIds() != null) {
+                    for (Long varianceId : suiteExe.getVarianceIds()) {
+                        VarianceClassificationDto varianceClassification = activeVariances.get(varianceId);
+                        if (varianceClassification != null) {
+                            variannceList.put(varianceId, varianceClassification);
                         }
                     }
-                    if (testExe.getStatus().toUpperCase().equals(StatusColor.PASS.toString())) {
-                        long value = statusMap.get(StatusColor.PASS.toString()) + 1;
-                        statusMap.put(StatusColor.PASS.toString(), value);
-                        totalCount++;
-                        continue;
-                    }
-                    if (testExe.getStatus().toUpperCase().equals(StatusColor.FAIL.toString())) {
-                        long value = statusMap.get(StatusColor.FAIL.toString()) + 1;
-                        statusMap.put(StatusColor.FAIL.toString(), value);
-                        totalCount++;
-                        continue;
-                    }
-                    if (testExe.getStatus().toUpperCase().equals(StatusColor.EXE.toString())) {
-                        long value = statusMap.get(StatusColor.EXE.toString()) + 1;
-                        statusMap.put(StatusColor.EXE.toString(), value);
-                        totalCount++;
-                        continue;
-                    }
-                    if (testExe.getStatus().toUpperCase().equals(StatusColor.ERR.toString())) {
-                        long value = statusMap.get(StatusColor.ERR.toString()) + 1;
-                        statusMap.put(StatusColor.ERR.toString(), value);
-                        totalCount++;
-                        continue;
-                    }
-                    if (testExe.getStatus().toUpperCase().equals(StatusColor.INFO.toString())) {
-                        long value = statusMap.get(StatusColor.INFO.toString()) + 1;
-                        statusMap.put(StatusColor.INFO.toString(), value);
-                        totalCount++;
-                        continue;
+                }
+                variancesByS_run_id.put(suiteExe.getS_run_id(), variannceList);
+            }
+
+            Document stepVarianceTc_run_id = new Document("$cond", Arrays.asList(
+                    new Document("$gt", Arrays.asList(
+                            new Document("$size", new Document("$ifNull", Arrays.asList("$stepVarianceIds", List.of()))),
+                            0)),
+                    "$tc_run_id",
+                    null));
+            Aggregation aggregation = Aggregation.newAggregation(
+                    Aggregation.match(Criteria.where("s_run_id").in(s_run_ids)),
+                    Aggregation.project("s_run_id", "tc_run_id", "status", "varianceId", "stepVarianceIds"),
+                    context -> new Document("$group", new Document("_id", new Document("s_run_id", "$s_run_id")
+                            .append("status", new Document("$toUpper", "$status"))
+                            .append("varianceId", "$varianceId")
+                            .append("tc_run_id", stepVarianceTc_run_id))
+                            .append("stepVarianceIds", new Document("$first", "$stepVarianceIds"))
+                            .append("count", new Document("$sum", 1))));
+            List<Map.Entry<TestExeDto, Long>> groups = new ArrayList<>();
+            List<TestExeDto> stepVarianceTestExes = new ArrayList<>();
+            for (Document document : mongoOperations.aggregate(aggregation, TEST_EXE_COLLECTION, Document.class)) {
+                Document id = document.get("_id", Document.class);
+                TestExeDto testExe = new TestExeDto();
+                testExe.setS_run_id(id.getString("s_run_id"));
+                testExe.setTc_run_id(id.getString("tc_run_id"));
+                testExe.setStatus(id.getString("status"));
+                Object varianceId = id.get("varianceId");
+                testExe.setVarianceId(varianceId instanceof Number ? ((Number) varianceId).longValue() : null);
+                List<?> stepVarianceIds = document.get("stepVarianceIds", List.class);
+                if (testExe.getTc_run_id() != null && stepVarianceIds != null) {
+                    List<Long> ids = new ArrayList<>();
+                    for (Object stepVarianceId : stepVarianceIds) {
+                        ids.add(((Number) stepVarianceId).longValue());
                     }
-                    if (testExe.getStatus().toUpperCase().equals(StatusColor.WARN.toString())) {
-                        long value = statusMap.get(StatusColor.WARN.toString()) + 1;
-                        statusMap.put(StatusColor.WARN.toString(), value);
-                        totalCount++;
-                        continue;
+                    testExe.setStepVarianceIds(ids);
+                    if (checkoneListContainsElementOfAnotherList(
+                            new ArrayList<>(variancesByS_run_id.get(testExe.getS_run_id()).keySet()), ids)) {
+                        stepVarianceTestExes.add(testExe);
                     }
+                }
+                groups.add(Map.entry(testExe, ((Number) document.get("count")).longValue()));
+            }
+            Map<String, StepsDto> stepsByTc_run_id = getStepsForActiveStepVariances(stepVarianceTestExes,
+                    new ArrayList<>(activeVariances.keySet()));
 
+            Map<String, Map<String, Long>> statusMapByS_run_id = new HashMap<>();
+            for (Map.Entry<TestExeDto, Long> group : groups) {
+                TestExeDto testExe = group.getKey();
+                Map<Long, VarianceClassificationDto> variannceList = variancesByS_run_id.get(testExe.getS_run_id());
+                String status = testExe.getStatus();
+                if (variannceList.get(testExe.getVarianceId()) != null) {
+                    status = "PASS";
+                }
+                if (testExe.getStepVarianceIds() != null && checkoneListContainsElementOfAnotherList(
+                        new ArrayList<>(variannceList.keySet()), testExe.getStepVarianceIds())) {
+                    status = checkStatusOfTestCaseByStepsIfVarianceIsThere(
+                            stepsByTc_run_id.get(testExe.getTc_run_id()), variannceList);
                 }
+                statusMapByS_run_id.computeIfAbsent(testExe.getS_run_id(), key -> new HashMap<>())
+                        .merge(status.toUpperCase(), group.getValue(), Long::sum);
+            }
 
+            for (SuiteExeDto suiteExe : suiteExes) {
+                Map<String, Long> statusMap = statusMapByS_run_id.getOrDefault(suiteExe.getS_run_id(), Map.of());
                 for (StatusColor statusColor : StatusColor.values()) {
+                    long count = statusMap.getOrDefault(statusColor.toString(), 0L);
                     switch (statusColor.toString()) {
                         case "PASS":
-                            passCount.add(statusMap.get(statusColor.toString()));
+                            passCount.add(count);
                             break;
                         case "FAIL":
-                            failCount.add(statusMap.get(statusColor.toString()));
+                            failCount.add(count);
                             break;
                         case "WARN":
-                            warnCount.add(statusMap.get(statusColor.toString()));
+                            warnCount.add(count);
                             break;
                         case "INFO":
-                            infoCount.add(statusMap.get(statusColor.toString()));
+                            infoCount.add(count);
                             break;
                         case "ERR":
-                            errCount.add(statusMap.get(statusColor.toString()));
+                            errCount.add(count);
                             break;
                         case "EXE":
-                            exeCount.add(statusMap.get(statusColor.toString()));
+                            exeCount.add(count);
                             break;
                     }
-
                 }
                 labels.add(suiteExe.getS_start_time());
             }
@@ -2617,11 +2828,8 @@ public class ReportUtils {
                 pieData.replace(key, ((Number) pieData.get(key)).longValue());
             }
             long totalcount = statues.size();
-            Map<String, Object> doughnutSubType = new HashMap<>();
-            doughnutSubType.put("subType", "doughnut_chart");
-            doughnutSubType.put("heading", "Total Testcase(s)");
             return createCustomObject(createDoughnutChart(pieData),
-                    "chart", totalcount, "center", doughnutSubType);
+                    "chart", totalcount, "center", Cell.DOUGHNUT_TOTAL_TESTCASES);
         }
         return null;
     }
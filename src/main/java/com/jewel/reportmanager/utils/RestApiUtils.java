@@ -1,15 +1,16 @@
 package com.jewel.reportmanager.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.gson.Gson;
 import com.jewel.reportmanager.dto.*;
-import com.jewel.reportmanager.enums.OperationType;
 import com.jewel.reportmanager.exception.CustomDataException;
 import com.mongodb.BasicDBObject;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
@@ -20,7 +21,8 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -46,7 +48,58 @@ public class RestApiUtils {
     public void setInsertionManagerUrl(String insertionManagerUrl) {
         RestApiUtils.insertionManagerUrl = insertionManagerUrl;
     }
-    private static ObjectMapper mapper = new ObjectMapper();
+    private static ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Executes the request and decodes the data field of the upstream {@link Response} envelope straight from
+     * the response stream into the requested type.
+     *
+     * @param url
+     * @param method
+     * @param body
+     * @param type
+     * @param uriVariables
+     * @return T - null when the envelope carries no data
+     */
+    private static <T> T exchangeForData(String url, HttpMethod method, Object body, TypeReference<T> type,
+                                         Map<String, ?> uriVariables) {
+        JavaType javaType = mapper.getTypeFactory().constructType(type);
+        return restTemplate.execute(url, method,
+                restTemplate.httpEntityCallback(new HttpEntity<>(body, ReportUtils.getAuthHeader()), Object.class),
+                response -> readResponseData(response.getBody(), javaType),
+                uriVariables);
+    }
+
+    /**
+     * Reads the data field of a {@link Response} envelope in a single streaming pass, skipping every other
+     * field without materialising it.
+     *
+     * @param body
+     * @param type
+     * @return T - null when the envelope carries no data
+     * @throws IOException
+     */
+    public static <T> T readResponseData(InputStream body, JavaType type) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field)) {
+                    return value == JsonToken.VALUE_NULL ? null : mapper.readValue(parser, type);
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
 
     /**
      * Returns a list of project role pid(s) for pid, status and username.
@@ -67,21 +120,13 @@ public class RestApiUtils {
         String url =
                 projectManagerUrl + "/v2/project/role/pid/status/username?pid={pid}&status={status}&username={username}";
         try {
-            Response response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    new HttpEntity<>(null, ReportUtils.getAuthHeader()),
-                    Response.class,
-                    uriVariables
-            ).getBody();
-
-            if (response != null && response.getOperation().equals(OperationType.Success)) {
-                List<?> pidsList = (List<?>) response.getData();
-                return pidsList.stream().map(pId -> Long.valueOf((Integer) pId)).collect(Collectors.toList());
-            } else {
+            List<Long> data = exchangeForData(url, HttpMethod.GET, null, new TypeReference<List<Long>>() {},
+                    uriVariables);
+            if (data == null) {
                 log.error("Something went wrong while fetching project role pid(s) for pid: {}", pid);
                 return List.of();
             }
+            return data;
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("Project role pid(s) list is empty for pid: {}", pid);
             return List.of();
@@ -97,24 +142,16 @@ public class RestApiUtils {
      * @return ProjectRoleDto
      */
     public static ProjectRoleDto getProjectRoleEntity(Long pid, String username, String status) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
+        return LookupCache.getProjectRole(pid, username, status, () -> fetchProjectRoleEntity(pid, username, status));
+    }
+
+    private static ProjectRoleDto fetchProjectRoleEntity(Long pid, String username, String status) {
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("pid", pid);
         uriVariables.put("username", username);
         uriVariables.put("status", status);
         try {
-            ResponseEntity response = restTemplate.exchange(projectManagerUrl + "/v2/project/role/entity?pid={pid}&userName={username}&status={status}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<ProjectRoleDto>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(projectManagerUrl + "/v2/project/role/entity?pid={pid}&userName={username}&status={status}", HttpMethod.GET, null, new TypeReference<ProjectRoleDto>() {}, uriVariables);
         } catch (HttpClientErrorException.NotFound ex) {
             log.info("Project role is empty for pid: {}", pid);
             return null;
@@ -129,23 +166,15 @@ public class RestApiUtils {
      * @return ProjectRoleDto
      */
     public static ProjectRoleDto getProjectRoleByPidAndUsername(Long pid, String username) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
+        return LookupCache.getProjectRole(pid, username, null, () -> fetchProjectRoleByPidAndUsername(pid, username));
+    }
+
+    private static ProjectRoleDto fetchProjectRoleByPidAndUsername(Long pid, String username) {
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("pid", pid);
         uriVariables.put("username", username);
         try {
-            ResponseEntity response = restTemplate.exchange(projectManagerUrl + "/v2/project/role/pid/username?pid={pid}&username={username}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<ProjectRoleDto>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(projectManagerUrl + "/v2/project/role/pid/username?pid={pid}&username={username}", HttpMethod.GET, null, new TypeReference<ProjectRoleDto>() {}, uriVariables);
         } catch (HttpClientErrorException.NotFound ex) {
             log.info("Project role is empty for pid: {}", pid);
             return null;
@@ -172,21 +201,13 @@ public class RestApiUtils {
         String url = projectManagerUrl +
                 "/v1/project/pid/status/realCompanyName?pid={pid}&status={status}&realCompanyName={realCompanyName}";
         try {
-            Response response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    new HttpEntity<>(null, ReportUtils.getAuthHeader()),
-                    Response.class,
-                    uriVariables
-            ).getBody();
-
-            if (response != null && response.getOperation().equals(OperationType.Success)) {
-                List<?> pidsList = (List<?>) response.getData();
-                return pidsList.stream().map(pId -> Long.valueOf((Integer) pId)).collect(Collectors.toList());
-            } else {
+            List<Long> data = exchangeForData(url, HttpMethod.GET, null, new TypeReference<List<Long>>() {},
+                    uriVariables);
+            if (data == null) {
                 log.error("Something went wrong while fetching project role pid(s) for pid: {}", pid);
                 return List.of();
             }
+            return data;
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("Project pid(s) list is empty for pid: {}", pid);
             return List.of();
@@ -210,21 +231,13 @@ public class RestApiUtils {
 
         String url = projectManagerUrl + "/v1/project/pids?pid={pid}&status={status}";
         try {
-            Response response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    new HttpEntity<>(null, ReportUtils.getAuthHeader()),
-                    Response.class,
-                    uriVariables
-            ).getBody();
-
-            if (response != null && response.getOperation().equals(OperationType.Success)) {
-                List<?> pidsList = (List<?>) response.getData();
-                return pidsList.stream().map(pId -> Long.valueOf((Integer) pId)).collect(Collectors.toList());
-            } else {
+            List<Long> data = exchangeForData(url, HttpMethod.GET, null, new TypeReference<List<Long>>() {},
+                    uriVariables);
+            if (data == null) {
                 log.error("Something went wrong while fetching project role pid(s) for pid: {}", pid);
                 return List.of();
             }
+            return data;
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("Project pid(s) list is empty for pid: {}", pid);
             return List.of();
@@ -246,21 +259,13 @@ public class RestApiUtils {
 
         String url = projectManagerUrl + "/v1/project/pid?pid={pid}";
         try {
-            Response response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    new HttpEntity<>(null, ReportUtils.getAuthHeader()),
-                    Response.class,
-                    uriVariables
-            ).getBody();
-
-            if(response != null && response.getOperation().equals(OperationType.Success)) {
-                List<?> projectsList = (List<?>) response.getData();
-                return projectsList.stream().map(Object::toString).collect(Collectors.toList());
-            } else {
+            List<String> data = exchangeForData(url, HttpMethod.GET, null, new TypeReference<List<String>>() {},
+                    uriVariables);
+            if (data == null) {
                 log.error("Something went wrong while fetching s_run_ids for pids: {}", pid);
                 return List.of();
             }
+            return data;
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("Project names list is empty for pid: {}", pid);
             return List.of();
@@ -293,24 +298,15 @@ public class RestApiUtils {
         String url = insertionManagerUrl + "/v1/suiteExe/report-names?p_id={p_id}&env={env}" +
                 "&s_start_time={s_start_time}&s_end_time={s_end_time}&pageNo={pageNo}";
         try {
-            Response response = restTemplate.exchange(
-                    url, HttpMethod.GET,
-                    new HttpEntity<>(null, ReportUtils.getAuthHeader()),
-                    Response.class,
-                    uriVariables
-            ).getBody();
-
-            List<String> reportNames;
-            if(response != null && response.getOperation().equals(OperationType.Success)) {
-                List<?> reportNamesList = (List<?>) response.getData();
-                reportNames = reportNamesList.stream().map(Object::toString).collect(Collectors.toList());
-                return reportNames;
-            } else {
+            List<String> data = exchangeForData(url, HttpMethod.GET, null, new TypeReference<List<String>>() {},
+                    uriVariables);
+            if (data == null) {
                 log.error("Something went wrong while fetching report names for pid: {}, " +
                                 "env: {}, start time: {}, end time: {} pageNo: {}",
                         p_id, env, s_start_time, s_end_time, pageNo);
                 return List.of();
             }
+            return data;
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("Report names list is empty for pid: {}, env: {}, start time: {}, end time: {} and pageNo: {}", p_id, env, s_start_time, s_end_time, pageNo);
             return List.of();
@@ -347,21 +343,15 @@ public class RestApiUtils {
                 "/v1/suiteExe?p_id={p_id}&env={env}&s_start_time={s_start_time}&s_end_time={s_end_time}" +
                 "&pageNo={pageNo}&sort={sort}&sortedColumn={sortedColumn}";
         try {
-            Response response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    new HttpEntity<>(null, ReportUtils.getAuthHeader()),
-                    Response.class,
-                    uriVariables).getBody();
-            if(response != null && response.getOperation().equals(OperationType.Success)) {
-                List<?> suiteExes = (List<?>) response.getData();
-                return suiteExes.stream().map(suiteExe -> mapper.convertValue(suiteExe, new TypeReference<SuiteExeDto>() {})).collect(Collectors.toList());
-            } else {
+            List<SuiteExeDto> data = exchangeForData(url, HttpMethod.GET, null, new TypeReference<List<SuiteExeDto>>() {},
+                    uriVariables);
+            if (data == null) {
                 log.error("Something went wrong while fetching suite exes for pid: {}, env: {}, " +
                                 "start time: {}, end time: {} pageNo: {}, sort: {} and sortedColumn: {}",
                         p_id, env, s_start_time, s_end_time, pageNo, sort, sortedColumn);
                 return List.of();
             }
+            return data;
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("Suite exe list is empty for pid: {}, env: {}, start time: {}, end time: {} pageNo: {}, sort: {} and sortedColumn: {}", p_id, env, s_start_time, s_end_time, pageNo, sort, sortedColumn);
             return List.of();
@@ -395,23 +385,15 @@ public class RestApiUtils {
         String url = insertionManagerUrl + "/v1/suiteExe/s_run_ids?p_id={p_id}&env={env}&s_start_time={s_start_time}" +
                 "&s_end_time={s_end_time}&pageNo={pageNo}&sort={sort}&sortedColumn={sortedColumn}";
         try {
-            Response response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    new HttpEntity<>(null, ReportUtils.getAuthHeader()),
-                    Response.class,
-                    uriVariables
-            ).getBody();
-
-            if(response != null && response.getOperation().equals(OperationType.Success)) {
-                List<?> sRunIdList = (List<?>) response.getData();
-                return sRunIdList.stream().map(Object::toString).collect(Collectors.toList());
-            } else {
+            List<String> data = exchangeForData(url, HttpMethod.GET, null, new TypeReference<List<String>>() {},
+                    uriVariables);
+            if (data == null) {
                 log.error("Something went wrong while fetching s_run_ids for pid: {}, " +
                         "env: {}, start time: {}, end time: {} pageNo: {}, sort: {} and sortedColumn: {}",
                         p_id, env, s_start_time, s_end_time, pageNo, sort, sortedColumn);
                 return List.of();
             }
+            return data;
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("s_run_ids list is empty for pid: {}, env: {}, start time: {}, end time: {} pageNo: {}, sort: {} and sortedColumn: {}", p_id, env, s_start_time, s_end_time, pageNo, sort, sortedColumn);
             return List.of();
@@ -434,9 +416,6 @@ public class RestApiUtils {
      * @return List<SuiteExeDto>
      */
     public static List<SuiteExeDto> getSuiteExesForSuiteTimeline(Long p_id, String category, String env, String reportName, Long s_start_time, Long s_end_time, Integer pageNo, Integer sort, String sortedColumn) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("p_id", p_id);
         uriVariables.put("category", category);
@@ -448,16 +427,7 @@ public class RestApiUtils {
         uriVariables.put("sort", sort);
         uriVariables.put("sortedColumn", sortedColumn);
         try {
-            ResponseEntity response = restTemplate.exchange(insertionManagerUrl + "/v1/suiteExe/suiteTimeline?p_id={p_id}&category={category}&env={env}&reportName={reportName}&s_start_time={s_start_time}&s_end_time={s_end_time}&pageNo={pageNo}&sort={sort}&sortedColumn={sortedColumn}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<List<SuiteExeDto>>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(insertionManagerUrl + "/v1/suiteExe/suiteTimeline?p_id={p_id}&category={category}&env={env}&reportName={reportName}&s_start_time={s_start_time}&s_end_time={s_end_time}&pageNo={pageNo}&sort={sort}&sortedColumn={sortedColumn}", HttpMethod.GET, null, new TypeReference<List<SuiteExeDto>>() {}, uriVariables);
         } catch (HttpClientErrorException.NotFound ex) {
             log.info("Suite exe list is empty for pid: {}, category: {}, env: {}, reportName: {}, start time: {}, end time: {} pageNo: {}, sort: {} and sortedColumn: {}", p_id, category, env, reportName, s_start_time, s_end_time, pageNo, sort, sortedColumn);
             return Collections.EMPTY_LIST;
@@ -479,9 +449,6 @@ public class RestApiUtils {
      * @return List<String>
      */
     public static List<String> getS_Run_IdsForSuiteTimeline(Long p_id, String category, String env, String reportName, Long s_start_time, Long s_end_time, Integer pageNo, Integer sort, String sortedColumn) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("p_id", p_id);
         uriVariables.put("category", category);
@@ -493,16 +460,7 @@ public class RestApiUtils {
         uriVariables.put("sort", sort);
         uriVariables.put("sortedColumn", sortedColumn);
         try {
-            ResponseEntity response = restTemplate.exchange(insertionManagerUrl + "/v1/suiteExe/s_run_ids/suiteTimeline?p_id={p_id}&category={category}&env={env}&reportName={reportName}&s_start_time={s_start_time}&s_end_time={s_end_time}&pageNo={pageNo}&sort={sort}&sortedColumn={sortedColumn}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<List<String>>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(insertionManagerUrl + "/v1/suiteExe/s_run_ids/suiteTimeline?p_id={p_id}&category={category}&env={env}&reportName={reportName}&s_start_time={s_start_time}&s_end_time={s_end_time}&pageNo={pageNo}&sort={sort}&sortedColumn={sortedColumn}", HttpMethod.GET, null, new TypeReference<List<String>>() {}, uriVariables);
         } catch (HttpClientErrorException.NotFound ex) {
             log.info("s_run_ids list is empty for pid: {}, category: {}, env: {}, reportName: {}, start time: {}, end time: {} pageNo: {}, sort: {} and sortedColumn: {}", p_id, category, env, reportName, s_start_time, s_end_time, pageNo, sort, sortedColumn);
             return Collections.EMPTY_LIST;
@@ -511,7 +469,6 @@ public class RestApiUtils {
 
     public static Map<String, Object>  getSuiteTimelineDataset(long p_id, String category, String env, String reportName, long startTime, long endTime, Integer pageNo, Integer sort, String sortedColumn) {
         String url = insertionManagerUrl + "/v2/suiteExe/suiteTimeline?p_id={p_id}&category={category}&env={env}&reportName={reportName}&s_start_time={s_start_time}&s_end_time={s_end_time}&pageNo={pageNo}&sort={sort}&sortedColumn={sortedColumn}";
-        HttpEntity httpEntity = new HttpEntity(null, ReportUtils.getAuthHeader());
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("p_id", p_id);
         uriVariables.put("category", category);
@@ -523,16 +480,7 @@ public class RestApiUtils {
         uriVariables.put("sort", sort);
         uriVariables.put("sortedColumn", sortedColumn);
         try {
-            ResponseEntity response = restTemplate.exchange(url, HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<Map<String, Object>>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(url, HttpMethod.GET, null, new TypeReference<Map<String, Object>>() {}, uriVariables);
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("unable to get suite timeline data for pid: {}, category: {}, env: {}, reportName: {}, "
                             + "start time: {}, end time: {} pageNo: {}, sort: {} and sortedColumn: {}", p_id, category,
@@ -543,21 +491,12 @@ public class RestApiUtils {
 
     public static Map<String, Object>  getCountByStatusList(List<String> statuses,
                                                              String s_run_id) {
-        String url = insertionManagerUrl + "/v1/testExe/testcaseInfo/" + s_run_id;
-        HttpEntity<?> httpEntity = new HttpEntity<>(statuses, ReportUtils.getAuthHeader());
+        String url = insertionManagerUrl + "/v1/testExe/testcaseInfo/{s_run_id}";
+        Map<String, Object> uriVariables = new HashMap<>();
+        uriVariables.put("s_run_id", s_run_id);
         try {
-            ResponseEntity<Response> response = restTemplate.exchange(url, HttpMethod.POST, httpEntity, Response.class);
-            if(response.getStatusCode() == HttpStatus.OK){
-                Gson gson = new Gson();
-                String json = gson.toJson(response.getBody());
-                Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-                }.getType());
-                Object data = convertedMap.get("data");
-                Type type = new TypeToken<Map<String, Object>>() {
-                }.getType();
-
-                return gson.fromJson(gson.toJson(data), type);
-            }
+            return exchangeForData(url, HttpMethod.POST, statuses, new TypeReference<Map<String, Object>>() {},
+                    uriVariables);
         } catch (HttpClientErrorException ex) {
             log.error("unable to fetch status count for s_run_id: {}", s_run_id);
         }
@@ -587,13 +526,8 @@ public class RestApiUtils {
 
         String url = insertionManagerUrl +
                 "/v1/suiteExe/count?p_id={p_id}&env={env}&s_start_time={s_start_time}&s_end_time={s_end_time}";
-        Response response = restTemplate.exchange(
-                url, HttpMethod.GET, new HttpEntity<>(null, ReportUtils.getAuthHeader()), Response.class, uriVariables).getBody();
-        long count = 0;
-        if(response != null && response.getOperation().equals(OperationType.Success)) {
-            count = Long.valueOf((Integer)response.getData());
-        }
-        return count;
+        Long count = exchangeForData(url, HttpMethod.GET, null, new TypeReference<Long>() {}, uriVariables);
+        return count != null ? count : 0L;
     }
 
     /**
@@ -623,22 +557,10 @@ public class RestApiUtils {
      * @return SuiteRun
      */
     public static SuiteRun getSuiteRun(String s_run_id) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("s_run_id", s_run_id);
         try {
-            ResponseEntity response = restTemplate.exchange(insertionManagerUrl + "/v2/suiteRun?s_run_id={s_run_id}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<SuiteRun>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(insertionManagerUrl + "/v2/suiteRun?s_run_id={s_run_id}", HttpMethod.GET, null, new TypeReference<SuiteRun>() {}, uriVariables);
         } catch (HttpClientErrorException.NotFound ex) {
             log.info("Suite run is empty for s_run_id: {}", s_run_id);
             return null;
@@ -652,22 +574,10 @@ public class RestApiUtils {
      * @return TestExeDto
      */
     public static TestExeDto getTestExe(String tc_run_id) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("tc_run_id", tc_run_id);
         try {
-            ResponseEntity response = restTemplate.exchange(insertionManagerUrl + "/v2/testcase?tc_run_id={tc_run_id}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<TestExeDto>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(insertionManagerUrl + "/v2/testcase?tc_run_id={tc_run_id}", HttpMethod.GET, null, new TypeReference<TestExeDto>() {}, uriVariables);
         } catch (HttpClientErrorException.BadRequest ex) {
             log.info("TestExe not found for tc_run_id: {}", tc_run_id);
             return null;
@@ -682,23 +592,11 @@ public class RestApiUtils {
      * @return SuiteRun
      */
     public static SuiteDto getSuiteByReportNameAndStatus(String reportName, String status) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("reportName", reportName);
         uriVariables.put("status", status);
         try {
-            ResponseEntity response = restTemplate.exchange(insertionManagerUrl + "/v2/suite/reportName/status?reportName={reportName}&status={status}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<SuiteDto>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(insertionManagerUrl + "/v2/suite/reportName/status?reportName={reportName}&status={status}", HttpMethod.GET, null, new TypeReference<SuiteDto>() {}, uriVariables);
         } catch (HttpClientErrorException.NotFound ex) {
             log.info("Suite is empty for reportName: {} and status: {}", reportName, status);
             return null;
@@ -714,24 +612,12 @@ public class RestApiUtils {
      * @return ProjectDto
      */
     public static ProjectDto getProjectByRealCompanyNameAndProjectAndStatus(String realCompanyName, String projectName, String status) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("realCompanyName", realCompanyName);
         uriVariables.put("projectName", projectName);
         uriVariables.put("status", status);
         try {
-            ResponseEntity response = restTemplate.exchange(projectManagerUrl + "/v1/project/realCompanyName/projectName/status?realCompanyName={realCompanyName}&projectName={projectName}&status={status}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<ProjectDto>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(projectManagerUrl + "/v1/project/realCompanyName/projectName/status?realCompanyName={realCompanyName}&projectName={projectName}&status={status}", HttpMethod.GET, null, new TypeReference<ProjectDto>() {}, uriVariables);
         } catch (HttpClientErrorException.NotFound ex) {
             log.info("Project is not found for realCompanyName: {}, projectName: {}, status: {}", realCompanyName, projectName, status);
             return null;
@@ -771,19 +657,13 @@ public class RestApiUtils {
     public static List<TestExeDto> getTestExeListForS_run_ids(List<String> s_run_ids) {
         String url = insertionManagerUrl + "/testExeLists";
         try {
-            Response response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    new HttpEntity<>(s_run_ids, ReportUtils.getAuthHeader()),
-                    Response.class
-            ).getBody();
-            if(response != null && response.getOperation().equals(OperationType.Success)) {
-                List<?> testExes = (List<?>) response.getData();
-                return testExes.stream().map(testExe -> mapper.convertValue(testExe, new TypeReference<TestExeDto>() {})).collect(Collectors.toList());
-            } else {
+            List<TestExeDto> data = exchangeForData(url, HttpMethod.POST, s_run_ids, new TypeReference<List<TestExeDto>>() {},
+                    Collections.emptyMap());
+            if (data == null) {
                 log.error("Something went wrong while fetching Suite exe list for s_run_ids: {}", s_run_ids);
                 return List.of();
             }
+            return data;
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("Suite exe list is empty for s_run_ids: {}", s_run_ids);
             return List.of();
@@ -813,6 +693,10 @@ public class RestApiUtils {
      * @return project
      */
     public static ProjectDto getProjectByPidAndStatus(Long pid, String status) {
+        return LookupCache.getProject(pid, status, () -> fetchProjectByPidAndStatus(pid, status));
+    }
+
+    private static ProjectDto fetchProjectByPidAndStatus(Long pid, String status) {
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
         HttpEntity httpEntity = new HttpEntity(null, headers);
@@ -830,23 +714,11 @@ public class RestApiUtils {
      * @return List<VarianceClassificationDto>
      */
     public static List<VarianceClassificationDto> getVarianceClassificationList(Set<Long> varianceId, String varianceStatus) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
         Map<String, Object> uriVariables = new HashMap<>();
         uriVariables.put("varianceId", varianceId.stream().filter(Objects::nonNull).map(Object::toString).collect(Collectors.joining(",")));
         uriVariables.put("varianceStatus", varianceStatus);
         try {
-            ResponseEntity response = restTemplate.exchange(insertionManagerUrl + "/v1/variance?varianceId={varianceId}&varianceStatus={varianceStatus}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<List<VarianceClassificationDto>>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(insertionManagerUrl + "/v1/variance?varianceId={varianceId}&varianceStatus={varianceStatus}", HttpMethod.GET, null, new TypeReference<List<VarianceClassificationDto>>() {}, uriVariables);
         } catch (HttpClientErrorException.NotFound ex) {
             log.info("Variance Classification list is empty for varianceId: {} and varianceStatus: {}", varianceId, varianceStatus);
             return Collections.EMPTY_LIST;
@@ -860,21 +732,9 @@ public class RestApiUtils {
      * @return StepsDto
      */
     public static StepsDto getSteps(String tc_run_id) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity<>(null, headers);
-
         try {
-            Response response = restTemplate.exchange(
-                    insertionManagerUrl + "/v1/steps?tc_run_id={tc_run_id}",
-                    HttpMethod.GET,
-                    httpEntity,
-                    Response.class,
-                    Collections.singletonMap("tc_run_id", tc_run_id)
-            ).getBody();
-            if(response!= null && response.getOperation().equals(OperationType.Success)){
-                return mapper.convertValue(response.getData(), new TypeReference<>() {});
-            }
+            return exchangeForData(insertionManagerUrl + "/v1/steps?tc_run_id={tc_run_id}", HttpMethod.GET, null,
+                    new TypeReference<StepsDto>() {}, Collections.singletonMap("tc_run_id", tc_run_id));
         } catch (HttpClientErrorException.NotFound ex) {
             log.info("Steps not found for tc_run_id: {}", tc_run_id);
         }
@@ -933,22 +793,15 @@ public class RestApiUtils {
         String url = insertionManagerUrl + "/v1/suiteExe/report_name?report_name={report_name}" +
                 "&p_id={p_id}&projects={projects}&s_start_time={s_start_time}&s_end_time={s_end_time}&env={env}";
         try {
-            Response response = restTemplate.exchange(
-                    url, HttpMethod.GET,
-                    new HttpEntity<>(null, ReportUtils.getAuthHeader()),
-                    Response.class,
-                    uriVariables
-            ).getBody();
-
-            if (response != null && response.getOperation().equals(OperationType.Success)) {
-                List<?> suiteExes = (List<?>) response.getData();
-                return suiteExes.stream().map(suiteExe -> mapper.convertValue(suiteExe, new TypeReference<SuiteExeDto>() {})).collect(Collectors.toList());
-            } else {
+            List<SuiteExeDto> data = exchangeForData(url, HttpMethod.GET, null, new TypeReference<List<SuiteExeDto>>() {},
+                    uriVariables);
+            if (data == null) {
                 log.error("Something went wrong while fetching SuiteExes for reportName {}, " +
                         "pids: {}, projects: {}, startTime: {}, endTime: {}, envs: {}",
                         reportName, pid, projects, startTime, endTime, envs);
                 return List.of();
             }
+            return data;
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("Suite exe list is empty for reportName: {}, pid: {}, projects: {}, start time: {}, end time: {} and env: {}", reportName, pid, projects, startTime, endTime, envs);
             return List.of();
@@ -963,9 +816,6 @@ public class RestApiUtils {
      * @return Map<String, Object> - map with test case count.
      */
     public static  Map<String, Double> getTestCaseCount(List<String> s_run_id, List<String> status) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
         Map<String, Object> uriVariables = new HashMap<>();
         String sRunIdList = s_run_id.stream()
                 .collect(Collectors.joining(","));
@@ -974,16 +824,7 @@ public class RestApiUtils {
                 .collect(Collectors.joining(","));
         uriVariables.put("status", statusList);
         try {
-            ResponseEntity response = restTemplate.exchange(insertionManagerUrl + "/v1/testExe/testCase?s_run_id={s_run_id}&status={status}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<Map<String, Double>>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
+            return exchangeForData(insertionManagerUrl + "/v1/testExe/testCase?s_run_id={s_run_id}&status={status}", HttpMethod.GET, null, new TypeReference<Map<String, Double>>() {}, uriVariables);
         } catch (RestClientException ex) {
             log.info("Empty map return for test case count for s_run_id: {} and status: {}", s_run_id, status);
             return Collections.emptyMap();
@@ -1008,30 +849,23 @@ public class RestApiUtils {
 
         String url = insertionManagerUrl + "/v1/testExe/data?pageNo={pageNo}&sort={sort}&sortedColumn={sortedColumn}";
         try {
-            ResponseEntity response = restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(payload, ReportUtils.getAuthHeader()), Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object  data = convertedMap.get("data");
-            Type type = new TypeToken<Map<String, Object>>() {
-            }.getType();
-
-            convertedMap = gson.fromJson(gson.toJson(data), type);
+            TestExeDataDto testExeData = exchangeForData(url, HttpMethod.POST, payload,
+                    new TypeReference<TestExeDataDto>() {}, uriVariables);
             Map<String, Object> resultMap = new HashMap<>();
-            resultMap.put("count", (long) Math.floor((Double) convertedMap.get("count")));
-            data = convertedMap.get("results");
-            type = new TypeToken<List<BasicDBObject>>() {
-            }.getType();
-            List<BasicDBObject> basicDBObjectList = gson.fromJson(gson.toJson(data), type);
-            for (BasicDBObject basicDBOBject: basicDBObjectList) {
-                Object d = basicDBOBject.get("result");
-                gson = new Gson();
-                type = new TypeToken<List<Document>>() {
-                }.getType();
-                basicDBOBject.put("result",gson.fromJson(gson.toJson(d), type));
-                basicDBOBject.put("end_time",(long) Math.floor((Double) basicDBOBject.get("end_time")));
-                basicDBOBject.put("start_time",(long) Math.floor((Double) basicDBOBject.get("start_time")));
+            resultMap.put("count", testExeData != null ? testExeData.getCount() : 0L);
+            List<BasicDBObject> basicDBObjectList = testExeData != null && testExeData.getResults() != null
+                    ? testExeData.getResults() : new ArrayList<>();
+            for (BasicDBObject basicDBOBject : basicDBObjectList) {
+                List<?> suiteExes = (List<?>) basicDBOBject.get("result");
+                List<Document> result = new ArrayList<>();
+                if (suiteExes != null) {
+                    for (Object suiteExe : suiteExes) {
+                        result.add(new Document((Map<String, Object>) suiteExe));
+                    }
+                }
+                basicDBOBject.put("result", result);
+                basicDBOBject.put("end_time", toLong(basicDBOBject.get("end_time")));
+                basicDBOBject.put("start_time", toLong(basicDBOBject.get("start_time")));
             }
 
             resultMap.put("results", basicDBObjectList);
@@ -1042,30 +876,6 @@ public class RestApiUtils {
         }
     }
 
-    public static Long getStatusWiseCount(String s_run_id, String status) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString());
-        HttpEntity httpEntity = new HttpEntity(null, headers);
-        Map<String, Object> uriVariables = new HashMap<>();
-        uriVariables.put("s_run_id", s_run_id);
-        uriVariables.put("status", status);
-        try {
-            ResponseEntity response = restTemplate.exchange(insertionManagerUrl + "/v1/testExe/statusCount?s_run_id={s_run_id}&status={status}", HttpMethod.GET, httpEntity, Object.class, uriVariables);
-            Gson gson = new Gson();
-            String json = gson.toJson(response.getBody());
-            Map<String, Object> convertedMap = gson.fromJson(json, new TypeToken<Map<String, Object>>() {
-            }.getType());
-            Object data = convertedMap.get("data");
-            Type type = new TypeToken<Long>() {
-            }.getType();
-
-            return gson.fromJson(gson.toJson(data), type);
-        } catch (RestClientException ex) {
-            log.error("Error while fetching status wise count for s_run_id: {} and status: {} - {}", s_run_id, status,ex.getMessage());
-            return null;
-        }
-    }
-
     public static Double getTimeRemainingNew(SuiteExeDto suite, List<List<DependencyTree>> dependencies) {
         try{
         String url = insertionManagerUrl + "/v1/getExpectedSuiteExecutionTime";
@@ -0,0 +1,194 @@
+package com.jewel.reportmanager.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Records how long the request thread spends in each phase of building a report, for the Server-Timing header.
+ * Phases are exclusive: entering a phase pauses the one around it, so time spent fetching inside render is only
+ * counted as fetch. Outside a timed request every method just runs the given code.
+ */
+public final class ServerTiming {
+
+    public static final String FETCH = "fetch";
+    public static final String ACL = "acl";
+    public static final String AGGREGATE = "aggregate";
+    public static final String RENDER = "render";
+    public static final String SERIALIZE = "serialize";
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private String activePhase;
+    private long activeSince;
+    private String report;
+
+    private ServerTiming() {
+    }
+
+    /**
+     * Starts recording for the current thread.
+     *
+     * @return ServerTiming
+     */
+    public static ServerTiming begin() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Stops recording for the current thread.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Enters the given phase until the returned phase is closed, for blocks timed with try-with-resources.
+     *
+     * @param phase
+     * @return Phase
+     */
+    public static Phase open(String phase) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) {
+            return Phase.NONE;
+        }
+        String outer = timing.switchTo(phase);
+        return () -> timing.switchTo(outer);
+    }
+
+    /**
+     * Runs the supplier and records its duration under the given phase.
+     *
+     * @param phase
+     * @param supplier
+     * @return T
+     */
+    public static <T> T time(String phase, Supplier<T> supplier) {
+        try (Phase ignored = open(phase)) {
+            return supplier.get();
+        }
+    }
+
+    /**
+     * Runs the runnable and records its duration under the given phase.
+     *
+     * @param phase
+     * @param runnable
+     */
+    public static void run(String phase, Runnable runnable) {
+        time(phase, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Enters a phase that lasts until {@link #stop()} is called, for phases that do not end inside one call such
+     * as serialization.
+     *
+     * @param phase
+     */
+    public static void enter(String phase) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.switchTo(phase);
+        }
+    }
+
+    /**
+     * Formats the phases recorded so far on the current thread as a Server-Timing header value, null outside a
+     * timed request.
+     *
+     * @return String
+     */
+    public static String currentHeader() {
+        ServerTiming timing = CURRENT.get();
+        return timing != null ? timing.toHeader() : null;
+    }
+
+    /**
+     * Names the report being built, for the slow request log.
+     *
+     * @param report
+     */
+    public static void setReport(String report) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.report = report;
+        }
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+    /**
+     * Closes the active phase.
+     */
+    public void stop() {
+        switchTo(null);
+    }
+
+    public long getTotalMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Returns the recorded phases in milliseconds, in the order they were first entered.
+     *
+     * @return Map<String, Double>
+     */
+    public Map<String, Double> getPhaseMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        phaseNanos.forEach((phase, nanos) -> millis.put(phase, nanos / 1_000_000.0));
+        return millis;
+    }
+
+    /**
+     * Formats the phases and the total as a Server-Timing header value.
+     *
+     * @return String
+     */
+    public String toHeader() {
+        if (activePhase != null) {
+            switchTo(activePhase);
+        }
+        StringBuilder header = new StringBuilder();
+        getPhaseMillis().forEach((phase, millis) -> header.append(phase).append(";dur=")
+                .append(String.format(Locale.ROOT, "%.1f", millis)).append(", "));
+        return header.append("total;dur=").append(getTotalMillis()).toString();
+    }
+
+    private String switchTo(String phase) {
+        long now = System.nanoTime();
+        if (activePhase != null) {
+            phaseNanos.merge(activePhase, now - activeSince, Long::sum);
+        }
+        String previous = activePhase;
+        activePhase = phase;
+        activeSince = now;
+        return previous;
+    }
+
+    /**
+     * A timed block, closing it returns to the phase around it.
+     */
+    public interface Phase extends AutoCloseable {
+
+        Phase NONE = () -> {
+        };
+
+        @Override
+        void close();
+
+    }
+
+}
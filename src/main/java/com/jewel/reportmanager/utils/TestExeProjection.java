@@ -0,0 +1,115 @@
+package com.jewel.reportmanager.utils;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.jewel.reportmanager.dto.TestExeDto;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns a {@link TestExeDto} into the row map of the testcase details table. It gives the same result as
+ * ObjectMapper.convertValue to a LinkedHashMap, merging user_defined_data into it and removing the excluded keys.
+ * The visible properties are resolved once from the Jackson serializer, so each row only reads those properties.
+ * Jackson still converts a value when it is not a plain scalar.
+ */
+public final class TestExeProjection {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Columns of the suite report once the suite has finished.
+     */
+    public static final TestExeProjection SUITE_REPORT = new TestExeProjection(Set.of(
+            "user_defined_data", "steps", "meta_data", "ignore", "log_file", "result_file", "s_run_id", "tc_run_id",
+            "classificationDetails", "stepVarianceIds", "job_name"));
+
+    /**
+     * Columns of the suite report while the suite is still executing.
+     */
+    public static final TestExeProjection LIVE_REPORT = new TestExeProjection(Set.of(
+            "user_defined_data", "steps", "meta_data", "ignore", "log_file", "result_file", "s_run_id", "tc_run_id",
+            "classificationDetails", "stepVarianceIds", "job_name", "varianceId", "testcase_id"));
+
+    private final Set<String> excluded;
+    private final List<BeanPropertyWriter> properties = new ArrayList<>();
+
+    private TestExeProjection(Set<String> excluded) {
+        this.excluded = excluded;
+        try {
+            JsonSerializer<Object> serializer = MAPPER.getSerializerProviderInstance()
+                    .findValueSerializer(TestExeDto.class);
+            for (Iterator<PropertyWriter> it = serializer.properties(); it.hasNext(); ) {
+                PropertyWriter property = it.next();
+                if (!excluded.contains(property.getName())) {
+                    properties.add((BeanPropertyWriter) property);
+                }
+            }
+        } catch (JsonMappingException ex) {
+            throw new IllegalStateException("Cannot resolve the properties of TestExeDto", ex);
+        }
+    }
+
+    /**
+     * Returns the visible columns of the test exe followed by its user defined data.
+     *
+     * @param testExe
+     * @return LinkedHashMap<String, Object>
+     */
+    public LinkedHashMap<String, Object> project(TestExeDto testExe) {
+        LinkedHashMap<String, Object> row = new LinkedHashMap<>();
+        for (BeanPropertyWriter property : properties) {
+            row.put(property.getName(), toNaturalValue(get(property, testExe)));
+        }
+        if (testExe.getUser_defined_data() != null) {
+            for (Map.Entry<String, Object> entry : testExe.getUser_defined_data().entrySet()) {
+                if (!excluded.contains(entry.getKey())) {
+                    row.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Adds the column names {@link #project} would produce for the test exe to names.
+     *
+     * @param testExe
+     * @param names
+     */
+    public void addColumnNames(TestExeDto testExe, Set<String> names) {
+        for (BeanPropertyWriter property : properties) {
+            names.add(property.getName());
+        }
+        if (testExe.getUser_defined_data() != null) {
+            for (String key : testExe.getUser_defined_data().keySet()) {
+                if (!excluded.contains(key)) {
+                    names.add(key);
+                }
+            }
+        }
+    }
+
+    private static Object get(BeanPropertyWriter property, TestExeDto testExe) {
+        try {
+            return property.get(testExe);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Cannot read " + property.getName() + " of TestExeDto", ex);
+        }
+    }
+
+    private static Object toNaturalValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        return MAPPER.convertValue(value, Object.class);
+    }
+
+}